@@ -1,10 +1,37 @@
 /*
     Author: Andreas Hammarstrand
     Written: 2020/09/07
+    Updated: 2026/10/18
     Purpose:
+        BalancedParentheses checks that an input of brackets is balanced.
     Usage:
+        Run with no arguments to check one line from stdin. Run with file
+        paths as arguments to check each file through ParenthesesValidator,
+        which does not recurse and maps the file instead of reading it
+        into a string. Put `--grammar=json` or `--grammar=c` before the
+        paths to check them with GrammarValidator instead, which skips
+        strings, comments and any text between the brackets.
+        Run with `--batch` to check every line of stdin, or of the files
+        that follow, through BatchParenthesesValidator, which writes one
+        result per line and a summary to stderr. `--threads=N`,
+        `--ignore-text` and `--cache=MB` may follow `--batch`.
+        Put `--parallel` before the paths, or give it alone for a line from
+        stdin, to check the input through ParallelParenthesesValidator,
+        which splits it over all processors. Run with assertions enabled,
+        every parallel answer is also checked against ParenthesesValidator.
  */
 
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.Scanner;
 
@@ -95,8 +122,138 @@ public class BalancedParentheses
             }
     }
 
-    public static void main(String[] args)
+    // validates every line of stdin, or of the files in `args`, and reports
+    // the throughput on stderr
+    private static void batch(String[] args) throws IOException
     {
+        int threads = 1;
+        boolean ignoreText = false;
+        long cacheBytes = 0;
+        int first = 1;
+
+        for (; first < args.length && args[first].startsWith("--"); first++)
+        {
+            if (args[first].startsWith("--threads="))
+            {
+                threads = Integer.parseInt(args[first].substring("--threads=".length()));
+            }
+            else if (args[first].equals("--ignore-text"))
+            {
+                ignoreText = true;
+            }
+            else if (args[first].startsWith("--cache="))
+            {
+                cacheBytes = Long.parseLong(args[first].substring("--cache=".length())) * 1024 * 1024;
+            }
+            else
+            {
+                throw new IllegalArgumentException(args[first]);
+            }
+        }
+
+        BatchParenthesesValidator validator = new BatchParenthesesValidator(threads, ignoreText, cacheBytes);
+        BufferedOutputStream out = new BufferedOutputStream(System.out, 64 * 1024);
+        long start = System.nanoTime();
+
+        if (first == args.length)
+        {
+            validator.run(Channels.newChannel(System.in), out);
+        }
+
+        for (int i = first; i < args.length; i++)
+        {
+            try (ReadableByteChannel in = FileChannel.open(Paths.get(args[i]), StandardOpenOption.READ))
+            {
+                validator.run(in, out);
+            }
+        }
+
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.err.println(String.format("%d records, %d bytes in %.2f s: %.0f records/s, %.1f MB/s",
+                validator.records(), validator.bytes(), seconds,
+                validator.records() / seconds, validator.bytes() / seconds / 1e6));
+
+        if (validator.cache() != null)
+        {
+            System.err.println("cache: " + validator.cache());
+        }
+    }
+
+    // validates the file at `path`, or the line `input` when `path` is null,
+    // through ParallelParenthesesValidator, and checks the answer against
+    // the sequential ParenthesesValidator
+    private static boolean parallel(Path path, String input) throws IOException
+    {
+        boolean result;
+        if (path != null)
+        {
+            result = ParallelParenthesesValidator.validate(path);
+            assert result == ParenthesesValidator.validate(path) : path;
+        }
+        else
+        {
+            result = ParallelParenthesesValidator.validate(ByteBuffer.wrap(input.getBytes(StandardCharsets.UTF_8)));
+            assert result == ParenthesesValidator.validate(input) : input;
+        }
+
+        return result;
+    }
+
+    public static void main(String[] args) throws IOException
+    {
+        if (args.length > 0 && args[0].equals("--parallel"))
+        {
+            if (args.length == 1)
+            {
+                Scanner in = new Scanner(System.in);
+                System.out.println(parallel(null, in.nextLine()));
+                return;
+            }
+
+            for (String path : Arrays.copyOfRange(args, 1, args.length))
+            {
+                System.out.println(path + ": " + parallel(Paths.get(path), null));
+            }
+
+            return;
+        }
+
+        if (args.length > 0 && args[0].equals("--batch"))
+        {
+            batch(args);
+            return;
+        }
+
+        if (args.length > 0 && args[0].startsWith("--grammar="))
+        {
+            String name = args[0].substring("--grammar=".length());
+            DelimiterGrammar grammar;
+            switch (name)
+            {
+                case "json": grammar = DelimiterGrammar.json(); break;
+                case "c": grammar = DelimiterGrammar.cLike(); break;
+                case "strict": grammar = DelimiterGrammar.strict(); break;
+                default: throw new IllegalArgumentException(name);
+            }
+
+            for (int i = 1; i < args.length; i++)
+            {
+                System.out.println(args[i] + ": " + GrammarValidator.validate(grammar, Paths.get(args[i])));
+            }
+
+            return;
+        }
+
+        if (args.length > 0)
+        {
+            for (String path : args)
+            {
+                System.out.println(path + ": " + ParenthesesValidator.validate(Paths.get(path)));
+            }
+
+            return;
+        }
+
         Scanner in = new Scanner(System.in);
         String input = in.nextLine();
         Iterator<Character> iter = new StringIterator(input);
@@ -0,0 +1,431 @@
+/*
+    Author: Andreas Hammarstrand
+    Written: 2026/10/18
+    Purpose:
+        BatchParenthesesValidator validates large amounts of newline
+        separated records, one result per record, in one run. The input is
+        read in chunks of whole records into buffers that are reused, and
+        every record is checked by a ParenthesesValidator that is reset
+        between records, so nothing is allocated per record. The results
+        are written as "1" (balanced) or "0" (not balanced), one per line,
+        through a buffered stream.
+        With more than one thread, chunks are validated by a pool of
+        workers while the calling thread keeps reading; the results of the
+        chunks are written in the order the chunks were read, so the output
+        lines always follow the input lines. A record that does not fit in
+        a chunk makes the chunk grow.
+    Usage:
+        Create an instance with
+        `new BatchParenthesesValidator(int threads, boolean ignoreText)` and
+        call `run(ReadableByteChannel in, OutputStream out)` once per input.
+        A '\r' before the '\n' of a record is not part of the record.
+        `records()` and `bytes()` tell how much has been validated so far.
+        With `new BatchParenthesesValidator(threads, ignoreText, cacheBytes)`
+        repeated records are answered by a CachingParenthesesValidator of
+        that many bytes, shared by all threads and available from `cache()`.
+        BalancedParentheses runs it with `--batch`. To run tests, run static
+        main function of the class.
+ */
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Random;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class BatchParenthesesValidator
+{
+    private static final int CHUNK_SIZE = 1024 * 1024;
+
+    private final int threads;
+    private final boolean ignoreText;
+
+    // null if records are not cached
+    private final CachingParenthesesValidator cache;
+
+    private long records;
+    private long bytes;
+
+    public BatchParenthesesValidator(int threads, boolean ignoreText)
+    {
+        this(threads, ignoreText, 0);
+    }
+
+    // with `cacheBytes` above 0, answers are cached for up to that many
+    // bytes of records
+    public BatchParenthesesValidator(int threads, boolean ignoreText, long cacheBytes)
+    {
+        if (threads < 1 || cacheBytes < 0)
+        {
+            throw new IllegalArgumentException();
+        }
+
+        this.threads = threads;
+        this.ignoreText = ignoreText;
+        cache = cacheBytes > 0 ? new CachingParenthesesValidator(cacheBytes, ignoreText) : null;
+    }
+
+    // returns the cache of the instance, or null if it has none.
+    public CachingParenthesesValidator cache()
+    {
+        return cache;
+    }
+
+    // returns the amount of records validated so far.
+    public long records()
+    {
+        return records;
+    }
+
+    // returns the amount of bytes read so far.
+    public long bytes()
+    {
+        return bytes;
+    }
+
+    // validates the records in `chunk[0..end)`, writes one result line per
+    // record to `results` and returns the amount of records.
+    private int validateRecords(ByteBuffer chunk, int end, ParenthesesValidator validator,
+            OutputStream results) throws IOException
+    {
+        // `record` is a view of the chunk that is moved from record to record
+        ByteBuffer record = chunk.duplicate();
+        int count = 0;
+        int start = 0;
+
+        while (start < end)
+        {
+            int newline = start;
+            while (newline < end && chunk.get(newline) != '\n')
+            {
+                newline++;
+            }
+
+            int recordEnd = newline;
+            if (recordEnd > start && chunk.get(recordEnd - 1) == '\r')
+            {
+                recordEnd--;
+            }
+
+            record.limit(recordEnd).position(start);
+
+            boolean balanced;
+            if (cache != null)
+            {
+                balanced = cache.validate(record);
+            }
+            else
+            {
+                validator.reset();
+                balanced = validator.feed(record) && validator.isBalanced();
+            }
+
+            results.write(balanced ? '1' : '0');
+            results.write('\n');
+
+            count++;
+            start = newline + 1;
+        }
+
+        return count;
+    }
+
+    // returns the end of the last complete record in `chunk[0..end)`, or 0
+    // if it holds no complete record
+    private static int lastRecordEnd(ByteBuffer chunk, int end)
+    {
+        for (int i = end - 1; i >= 0; i--)
+        {
+            if (chunk.get(i) == '\n')
+            {
+                return i + 1;
+            }
+        }
+
+        return 0;
+    }
+
+    // fills `chunk` from `in`, returns false once `in` is exhausted
+    private boolean fill(ReadableByteChannel in, ByteBuffer chunk) throws IOException
+    {
+        while (chunk.hasRemaining())
+        {
+            int read = in.read(chunk);
+            if (read < 0)
+            {
+                return false;
+            }
+
+            bytes += read;
+        }
+
+        return true;
+    }
+
+    // returns a buffer twice the size of `chunk` with the same content
+    private static ByteBuffer grow(ByteBuffer chunk)
+    {
+        ByteBuffer bigger = ByteBuffer.allocate(chunk.capacity() * 2);
+        chunk.flip();
+        bigger.put(chunk);
+        return bigger;
+    }
+
+    // validates every record that can be read from `in` and writes the
+    // results to `out`, which is flushed but not closed.
+    public void run(ReadableByteChannel in, OutputStream out) throws IOException
+    {
+        if (threads == 1)
+        {
+            runSequential(in, out);
+        }
+        else
+        {
+            runParallel(in, out);
+        }
+    }
+
+    private void runSequential(ReadableByteChannel in, OutputStream out) throws IOException
+    {
+        ParenthesesValidator validator = new ParenthesesValidator(ignoreText);
+        ByteBuffer chunk = ByteBuffer.allocate(CHUNK_SIZE);
+        boolean more = true;
+
+        while (more)
+        {
+            more = fill(in, chunk);
+
+            int end = more ? lastRecordEnd(chunk, chunk.position()) : chunk.position();
+            if (end == 0 && more)
+            {
+                // a record longer than the chunk
+                chunk = grow(chunk);
+                continue;
+            }
+
+            records += validateRecords(chunk, end, validator, out);
+
+            // the start of the next record is moved to the front
+            chunk.limit(chunk.position()).position(end);
+            chunk.compact();
+        }
+
+        out.flush();
+    }
+
+    private void runParallel(ReadableByteChannel in, OutputStream out) throws IOException
+    {
+        // the chunks not in use, which bounds how far reading can get ahead
+        // of validation
+        int chunkCount = 2 * threads + 1;
+        BlockingQueue<ByteBuffer> free = new ArrayBlockingQueue<ByteBuffer>(chunkCount);
+        for (int i = 0; i < chunkCount; i++)
+        {
+            free.add(ByteBuffer.allocate(CHUNK_SIZE));
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        ThreadLocal<ParenthesesValidator> validators = ThreadLocal.withInitial(
+                () -> new ParenthesesValidator(ignoreText));
+
+        // the results of the chunks, in the order the chunks were read
+        ArrayDeque<Future<ByteArrayOutputStream>> pending = new ArrayDeque<Future<ByteArrayOutputStream>>();
+
+        try
+        {
+            ByteBuffer chunk = take(free);
+            boolean more = true;
+
+            while (more)
+            {
+                more = fill(in, chunk);
+
+                int end = more ? lastRecordEnd(chunk, chunk.position()) : chunk.position();
+                if (end == 0 && more)
+                {
+                    chunk = grow(chunk);
+                    continue;
+                }
+
+                // the start of the next record goes to the front of the next
+                // chunk
+                ByteBuffer next = take(free);
+                if (next.capacity() < chunk.position() - end)
+                {
+                    next = ByteBuffer.allocate(chunk.capacity());
+                }
+
+                for (int i = end; i < chunk.position(); i++)
+                {
+                    next.put(chunk.get(i));
+                }
+
+                final ByteBuffer full = chunk;
+                final int fullEnd = end;
+                pending.add(pool.submit(() ->
+                {
+                    ByteArrayOutputStream results = new ByteArrayOutputStream(fullEnd / 4 + 16);
+                    validateRecords(full, fullEnd, validators.get(), results);
+
+                    full.clear();
+                    free.add(full);
+                    return results;
+                }));
+
+                chunk = next;
+
+                // results that are ready are written right away, and the
+                // reader waits when too many chunks are unwritten
+                while (!pending.isEmpty() && (pending.peek().isDone() || pending.size() > chunkCount))
+                {
+                    write(pending.poll(), out);
+                }
+            }
+
+            while (!pending.isEmpty())
+            {
+                write(pending.poll(), out);
+            }
+        }
+        finally
+        {
+            pool.shutdownNow();
+        }
+
+        out.flush();
+    }
+
+    private static ByteBuffer take(BlockingQueue<ByteBuffer> free) throws IOException
+    {
+        try
+        {
+            return free.take();
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        }
+    }
+
+    // writes the results of a chunk once they are ready
+    private void write(Future<ByteArrayOutputStream> future, OutputStream out) throws IOException
+    {
+        ByteArrayOutputStream results;
+        try
+        {
+            results = future.get();
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        }
+        catch (ExecutionException e)
+        {
+            throw new IOException(e.getCause());
+        }
+
+        // every result is two bytes long
+        records += results.size() / 2;
+        results.writeTo(out);
+    }
+
+    // test method
+    public static void main(String[] args) throws IOException
+    {
+        String input = "()\n([]{()})\r\n(]\n\n(a)\n((\n{}";
+
+        // one result per record, the last record has no newline
+        for (int threads = 1; threads <= 3; threads++)
+        {
+            BatchParenthesesValidator batch = new BatchParenthesesValidator(threads, false);
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            batch.run(Channels.newChannel(new ByteArrayInputStream(
+                    input.getBytes(StandardCharsets.US_ASCII))), out);
+
+            String output_result = out.toString("US-ASCII");
+            long records_result = batch.records();
+
+            assert output_result.equals("1\n1\n0\n1\n0\n0\n1\n") : output_result;
+            assert records_result == 7 : records_result;
+        }
+
+        // ignoring text, brackets between words are checked
+        BatchParenthesesValidator lenient = new BatchParenthesesValidator(1, true);
+        ByteArrayOutputStream lenient_out = new ByteArrayOutputStream();
+        lenient.run(Channels.newChannel(new ByteArrayInputStream(
+                "f(a[i])\nf(a[i)]\n".getBytes(StandardCharsets.US_ASCII))), lenient_out);
+
+        String lenient_result = lenient_out.toString("US-ASCII");
+        assert lenient_result.equals("1\n0\n") : lenient_result;
+
+        // repeated records are answered by the cache
+        BatchParenthesesValidator cached = new BatchParenthesesValidator(2, false, 1024 * 1024);
+        ByteArrayOutputStream cached_out = new ByteArrayOutputStream();
+        cached.run(Channels.newChannel(new ByteArrayInputStream(
+                "()\n(]\n()\n(]\n()\n".getBytes(StandardCharsets.US_ASCII))), cached_out);
+
+        String cached_result = cached_out.toString("US-ASCII");
+        long cache_hits_result = cached.cache().hits();
+
+        assert cached_result.equals("1\n0\n1\n0\n1\n") : cached_result;
+        assert cache_hits_result == 3 : cache_hits_result;
+
+        // case test
+        // many random records, and a record longer than a chunk, must give
+        // the same results with any amount of threads, in input order
+        Random random = new Random(9);
+        StringBuilder records = new StringBuilder();
+        StringBuilder expected = new StringBuilder();
+        for (int n = 0; n < 200_000; n++)
+        {
+            StringBuilder record = new StringBuilder();
+            int length = random.nextInt(40);
+            for (int i = 0; i < length; i++)
+            {
+                record.append("()[]{}".charAt(random.nextInt(6)));
+            }
+
+            if (n == 1000)
+            {
+                for (int i = 0; i < CHUNK_SIZE; i++)
+                {
+                    record.append("()");
+                }
+            }
+
+            records.append(record).append('\n');
+            expected.append(ParenthesesValidator.validate(record.toString()) ? "1\n" : "0\n");
+        }
+
+        byte[] data = records.toString().getBytes(StandardCharsets.US_ASCII);
+        for (int threads : new int[] { 1, 2, 4 })
+        {
+            BatchParenthesesValidator batch = new BatchParenthesesValidator(threads, false);
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+            long start = System.nanoTime();
+            batch.run(Channels.newChannel(new ByteArrayInputStream(data)), out);
+            long elapsed = System.nanoTime() - start;
+
+            String output_result = out.toString("US-ASCII");
+            assert output_result.equals(expected.toString()) : threads;
+            assert batch.records() == 200_000 : batch.records();
+
+            System.out.println(String.format("%d threads: %.0f records/s, %.1f MB/s", threads,
+                    batch.records() * 1e9 / elapsed, batch.bytes() * 1e3 / elapsed));
+        }
+    }
+}
@@ -0,0 +1,229 @@
+/*
+    Author: Andreas Hammarstrand
+    Written: 2026/10/18
+    Purpose:
+        BracketScanner finds the next bracket in a buffer without looking at
+        the bytes one by one. It reads the buffer eight bytes at a time as a
+        `long` and tests all eight bytes against the brackets at once with
+        plain arithmetic (SWAR, SIMD within a register), four words per
+        round so that stretches of text are skipped 32 bytes at a time.
+        Only positions that hold a bracket are handed back to the caller.
+        The bytes that do not fill a whole word at the end of a range are
+        checked one at a time by the scalar fallback, which can also be
+        used on its own.
+    Usage:
+        `int nextBracket(ByteBuffer buffer, int from, int to)` returns the
+        index of the first '(', ')', '[', ']', '{' or '}' in
+        `buffer[from..to)`, or `to` if there is none, without changing the
+        position of the buffer. `nextBracketScalar` does the same one byte
+        at a time. ParenthesesValidator uses this to skip text when it is
+        created with `new ParenthesesValidator(true)`. To run tests, run
+        static main function of the class.
+ */
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Random;
+
+public class BracketScanner
+{
+    private static final long ONES = 0x0101010101010101L;
+    private static final long LOW_BITS = 0x7F7F7F7F7F7F7F7FL;
+
+    // '(' and ')' are 0x28 and 0x29, setting the lowest bit maps both to 0x29
+    private static final long ROUND = 0x29 * ONES;
+
+    // '[' and ']' are 0x5B and 0x5D, '{' and '}' are 0x7B and 0x7D; clearing
+    // bit 5 maps the curly brackets onto the square ones.
+    private static final long SQUARE_OPEN = 0x5B * ONES;
+    private static final long SQUARE_CLOSE = 0x5D * ONES;
+    private static final long CASE_MASK = ~(0x20 * ONES);
+
+    private BracketScanner()
+    {
+    }
+
+    // returns true if `b` is one of the six brackets.
+    public static boolean isBracket(int b)
+    {
+        switch (b)
+        {
+            case '(':
+            case ')':
+            case '[':
+            case ']':
+            case '{':
+            case '}':
+                return true;
+        }
+
+        return false;
+    }
+
+    // returns a word with the high bit set in every byte of `word` that is
+    // zero, and no other bits set.
+    private static long zeroBytes(long word)
+    {
+        return ~(((word & LOW_BITS) + LOW_BITS) | word | LOW_BITS);
+    }
+
+    // returns a word with the high bit set in every byte of `word` that is
+    // a bracket, and no other bits set.
+    private static long bracketBytes(long word)
+    {
+        long folded = word & CASE_MASK;
+        return zeroBytes((word | ONES) ^ ROUND)
+                | zeroBytes(folded ^ SQUARE_OPEN)
+                | zeroBytes(folded ^ SQUARE_CLOSE);
+    }
+
+    // returns the index of the first marked byte in a word read at `index`
+    private static int firstMarked(long marks, int index, boolean littleEndian)
+    {
+        // in little endian order the first byte in memory is the lowest one
+        return index + (littleEndian
+                ? Long.numberOfTrailingZeros(marks) >>> 3
+                : Long.numberOfLeadingZeros(marks) >>> 3);
+    }
+
+    // returns the index of the first bracket in `buffer[from..to)`, or `to`.
+    public static int nextBracket(ByteBuffer buffer, int from, int to)
+    {
+        boolean littleEndian = buffer.order() == ByteOrder.LITTLE_ENDIAN;
+        int i = from;
+
+        // four words per round, text is skipped 32 bytes at a time
+        while (i + 32 <= to)
+        {
+            long m0 = bracketBytes(buffer.getLong(i));
+            long m1 = bracketBytes(buffer.getLong(i + 8));
+            long m2 = bracketBytes(buffer.getLong(i + 16));
+            long m3 = bracketBytes(buffer.getLong(i + 24));
+
+            if ((m0 | m1 | m2 | m3) != 0)
+            {
+                if (m0 != 0)
+                {
+                    return firstMarked(m0, i, littleEndian);
+                }
+
+                if (m1 != 0)
+                {
+                    return firstMarked(m1, i + 8, littleEndian);
+                }
+
+                if (m2 != 0)
+                {
+                    return firstMarked(m2, i + 16, littleEndian);
+                }
+
+                return firstMarked(m3, i + 24, littleEndian);
+            }
+
+            i += 32;
+        }
+
+        while (i + 8 <= to)
+        {
+            long marks = bracketBytes(buffer.getLong(i));
+            if (marks != 0)
+            {
+                return firstMarked(marks, i, littleEndian);
+            }
+
+            i += 8;
+        }
+
+        // the tail is shorter than a word
+        return nextBracketScalar(buffer, i, to);
+    }
+
+    // returns the index of the first bracket in `buffer[from..to)`, or `to`,
+    // checking one byte at a time.
+    public static int nextBracketScalar(ByteBuffer buffer, int from, int to)
+    {
+        for (int i = from; i < to; i++)
+        {
+            if (isBracket(buffer.get(i)))
+            {
+                return i;
+            }
+        }
+
+        return to;
+    }
+
+    // test method
+    public static void main(String[] args)
+    {
+        // every byte value, at every position within a word, in both byte
+        // orders, has to give the same answer as the scalar check
+        for (ByteOrder order : new ByteOrder[] { ByteOrder.LITTLE_ENDIAN, ByteOrder.BIG_ENDIAN })
+        {
+            ByteBuffer buffer = ByteBuffer.allocate(40).order(order);
+            for (int value = 0; value < 256; value++)
+            {
+                for (int position = 0; position < 40; position++)
+                {
+                    for (int i = 0; i < 40; i++)
+                    {
+                        buffer.put(i, (byte)'a');
+                    }
+
+                    buffer.put(position, (byte)value);
+
+                    int swar_result = nextBracket(buffer, 0, 40);
+                    int scalar_result = nextBracketScalar(buffer, 0, 40);
+
+                    assert swar_result == scalar_result : value + " at " + position + ": " + swar_result;
+                }
+            }
+        }
+
+        // case test
+        // mostly text with a bracket now and then, both ways must find the
+        // same brackets and the word-at-a-time scan should be faster.
+        Random random = new Random(6);
+        byte[] text = new byte[64 * 1024 * 1024];
+        for (int i = 0; i < text.length; i++)
+        {
+            text[i] = (byte)('a' + random.nextInt(26));
+        }
+
+        for (int i = 0; i < text.length / 1000; i++)
+        {
+            text[random.nextInt(text.length)] = (byte)"()[]{}".charAt(random.nextInt(6));
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocateDirect(text.length).order(ByteOrder.nativeOrder());
+        buffer.put(text);
+        buffer.flip();
+
+        long scalar_time = 0, swar_time = 0;
+        long scalar_count = 0, swar_count = 0;
+        for (int round = 0; round < 5; round++)
+        {
+            long start = System.nanoTime();
+            for (int i = nextBracketScalar(buffer, 0, text.length); i < text.length;
+                    i = nextBracketScalar(buffer, i + 1, text.length))
+            {
+                scalar_count++;
+            }
+
+            scalar_time += System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (int i = nextBracket(buffer, 0, text.length); i < text.length;
+                    i = nextBracket(buffer, i + 1, text.length))
+            {
+                swar_count++;
+            }
+
+            swar_time += System.nanoTime() - start;
+        }
+
+        assert scalar_count == swar_count : scalar_count + " " + swar_count;
+        System.out.println(String.format("scalar %.0f MB/s, word at a time %.0f MB/s",
+                5.0 * text.length / scalar_time * 1e3, 5.0 * text.length / swar_time * 1e3));
+    }
+}
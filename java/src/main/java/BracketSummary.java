@@ -0,0 +1,368 @@
+/*
+    Author: Andreas Hammarstrand
+    Written: 2026/10/18
+    Purpose:
+        BracketSummary describes what is left of a piece of bracket input
+        once every pair inside it has been matched: the closing brackets
+        that were never opened, in order, followed by the opening brackets
+        that were never closed. Two neighbouring pieces are combined by
+        matching the open brackets of the left piece against the closing
+        brackets of the right piece, which is associative, so the pieces of
+        an input can be summarised independently (and in parallel) and
+        combined afterwards. The input is balanced if the combined summary
+        is valid and empty.
+        The summary follows the rules of BalancedParentheses: any byte that
+        is not a bracket, or a closing bracket of the wrong kind, makes the
+        summary invalid.
+    Usage:
+        Summarise a range of a buffer with
+        `BracketSummary.of(ByteBuffer buffer, int from, int to)` and combine
+        neighbouring summaries, left to right, with
+        `BracketSummary.combine(left, right)`. `isBalanced()` tells if the
+        summary describes a balanced input. `ofText(CharSequence text, int
+        from, int to)` summarises text instead, skipping everything that is
+        not a bracket. To run tests, run static main function of the class.
+ */
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+public class BracketSummary
+{
+    // the summary of an empty input
+    public static final BracketSummary EMPTY = new BracketSummary(new byte[0], 0, new byte[0], 0, true);
+
+    // the summary of an input with a mismatch or an unexpected byte
+    public static final BracketSummary INVALID = new BracketSummary(new byte[0], 0, new byte[0], 0, false);
+
+    // the unmatched closing brackets, in the order they appear
+    private final byte[] closers;
+    private final int closerCount;
+
+    // the closing brackets the unmatched opening brackets need, from the
+    // outermost to the innermost
+    private final byte[] openers;
+    private final int openerCount;
+
+    private final boolean valid;
+
+    private BracketSummary(byte[] closers, int closerCount, byte[] openers, int openerCount, boolean valid)
+    {
+        this.closers = closers;
+        this.closerCount = closerCount;
+        this.openers = openers;
+        this.openerCount = openerCount;
+        this.valid = valid;
+    }
+
+    // returns the closing bracket for an opening bracket, or 0 for any
+    // other byte.
+    static byte closerOf(int b)
+    {
+        switch (b)
+        {
+            case '(': return ')';
+            case '[': return ']';
+            case '{': return '}';
+        }
+
+        return 0;
+    }
+
+    static boolean isCloser(int b)
+    {
+        return b == ')' || b == ']' || b == '}';
+    }
+
+    // returns true if no mismatch has been found.
+    public boolean isValid()
+    {
+        return valid;
+    }
+
+    // returns the amount of closing brackets that were never opened.
+    public int unmatchedClosers()
+    {
+        return closerCount;
+    }
+
+    // returns the amount of opening brackets that were never closed.
+    public int unmatchedOpeners()
+    {
+        return openerCount;
+    }
+
+    // returns true if the summary describes a balanced input.
+    public boolean isBalanced()
+    {
+        return valid && closerCount == 0 && openerCount == 0;
+    }
+
+    // collects the unmatched brackets of a range, one byte at a time
+    private static class Builder
+    {
+        // `openers` works as the stack of expected closing brackets, it only
+        // grows as deep as the nesting within the range
+        byte[] closers = new byte[16];
+        int closerCount;
+        byte[] openers = new byte[16];
+        int openerCount;
+
+        // adds the next byte of the range, returns false if the range can
+        // no longer be part of a balanced input.
+        boolean add(int b)
+        {
+            byte closer = closerOf(b);
+
+            if (closer != 0)
+            {
+                if (openerCount == openers.length)
+                {
+                    openers = Arrays.copyOf(openers, openers.length * 2);
+                }
+
+                openers[openerCount++] = closer;
+            }
+            else if (openerCount > 0)
+            {
+                // with an open bracket in the range, only its own closing
+                // bracket may follow
+                if (openers[openerCount - 1] != b)
+                {
+                    return false;
+                }
+
+                openerCount--;
+            }
+            else if (isCloser(b))
+            {
+                // nothing open in the range, an earlier range has to open it
+                if (closerCount == closers.length)
+                {
+                    closers = Arrays.copyOf(closers, closers.length * 2);
+                }
+
+                closers[closerCount++] = (byte)b;
+            }
+            else
+            {
+                return false;
+            }
+
+            return true;
+        }
+
+        BracketSummary build()
+        {
+            return new BracketSummary(closers, closerCount, openers, openerCount, true);
+        }
+    }
+
+    // summarises the bytes of `buffer` from index `from` up to `to`, without
+    // changing the position of the buffer.
+    public static BracketSummary of(ByteBuffer buffer, int from, int to)
+    {
+        Builder builder = new Builder();
+
+        for (int i = from; i < to; i++)
+        {
+            if (!builder.add(buffer.get(i)))
+            {
+                return INVALID;
+            }
+        }
+
+        return builder.build();
+    }
+
+    // summarises the brackets among the characters of `text` from index
+    // `from` up to `to`. unlike `of`, any character that is not a bracket
+    // is skipped, as in a document where brackets are mixed with text.
+    public static BracketSummary ofText(CharSequence text, int from, int to)
+    {
+        Builder builder = new Builder();
+
+        for (int i = from; i < to; i++)
+        {
+            char c = text.charAt(i);
+            if (BracketScanner.isBracket(c) && !builder.add(c))
+            {
+                return INVALID;
+            }
+        }
+
+        return builder.build();
+    }
+
+    // returns the index of the first bracket in `text[from..to)` at which the
+    // input described by `before`, followed by the text, can no longer be
+    // balanced, or -1 if there is none. `before` has to be valid and without
+    // unmatched closing brackets. characters that are not brackets are
+    // skipped, as in `ofText`.
+    static int firstMismatch(BracketSummary before, CharSequence text, int from, int to)
+    {
+        // brackets opened within the text, and how many of the open
+        // brackets of `before` have been closed so far
+        CharStack open = new CharStack();
+        int closedBefore = 0;
+
+        for (int i = from; i < to; i++)
+        {
+            char c = text.charAt(i);
+            if (!BracketScanner.isBracket(c))
+            {
+                continue;
+            }
+
+            byte closer = closerOf(c);
+            if (closer != 0)
+            {
+                open.push((char)closer);
+            }
+            else if (!open.isEmpty())
+            {
+                if (open.pop() != c)
+                {
+                    return i;
+                }
+            }
+            else
+            {
+                // the bracket has to close one left open by `before`
+                if (closedBefore == before.openerCount ||
+                        before.openers[before.openerCount - 1 - closedBefore] != c)
+                {
+                    return i;
+                }
+
+                closedBefore++;
+            }
+        }
+
+        return -1;
+    }
+
+    // returns the summary of the input `left` describes directly followed by
+    // the input `right` describes.
+    public static BracketSummary combine(BracketSummary left, BracketSummary right)
+    {
+        if (!left.valid || !right.valid)
+        {
+            return INVALID;
+        }
+
+        if (left.openerCount == 0 && right.closerCount == 0)
+        {
+            if (left.closerCount == 0 && left.openerCount == 0)
+            {
+                return right;
+            }
+
+            if (right.closerCount == 0 && right.openerCount == 0)
+            {
+                return left;
+            }
+        }
+
+        // the innermost open brackets of `left` meet the first closing
+        // brackets of `right`
+        int matched = Math.min(left.openerCount, right.closerCount);
+        for (int k = 0; k < matched; k++)
+        {
+            if (left.openers[left.openerCount - 1 - k] != right.closers[k])
+            {
+                return INVALID;
+            }
+        }
+
+        byte[] closers;
+        int closerCount;
+        byte[] openers;
+        int openerCount;
+
+        if (right.closerCount > matched)
+        {
+            // `left` is completely closed, the remaining closing brackets
+            // of `right` are added to those of `left`
+            closerCount = left.closerCount + right.closerCount - matched;
+            closers = Arrays.copyOf(left.closers, closerCount);
+            System.arraycopy(right.closers, matched, closers, left.closerCount, right.closerCount - matched);
+
+            openers = right.openers;
+            openerCount = right.openerCount;
+        }
+        else
+        {
+            // the remaining open brackets of `left` are below those of `right`
+            closers = left.closers;
+            closerCount = left.closerCount;
+
+            int leftRemaining = left.openerCount - matched;
+            openerCount = leftRemaining + right.openerCount;
+            openers = Arrays.copyOf(left.openers, Math.max(openerCount, 1));
+            System.arraycopy(right.openers, 0, openers, leftRemaining, right.openerCount);
+        }
+
+        return new BracketSummary(closers, closerCount, openers, openerCount, true);
+    }
+
+    // test method
+    public static void main(String[] args)
+    {
+        ByteBuffer input = ByteBuffer.wrap("([]{()})".getBytes(StandardCharsets.US_ASCII));
+
+        // the whole input summarised at once is balanced
+        BracketSummary whole = of(input, 0, input.limit());
+        assert whole.isBalanced();
+
+        // every split of the input combines back into a balanced summary
+        for (int split = 0; split <= input.limit(); split++)
+        {
+            BracketSummary left = of(input, 0, split);
+            BracketSummary right = of(input, split, input.limit());
+            BracketSummary combined = combine(left, right);
+
+            assert combined.isBalanced() : split;
+        }
+
+        // "([" + "})" has matching counts but the kinds do not match
+        ByteBuffer crossed = ByteBuffer.wrap("([})".getBytes(StandardCharsets.US_ASCII));
+        BracketSummary crossed_left = of(crossed, 0, 2);
+        BracketSummary crossed_right = of(crossed, 2, 4);
+
+        int left_openers_result = crossed_left.unmatchedOpeners();
+        int right_closers_result = crossed_right.unmatchedClosers();
+
+        assert left_openers_result == 2 : left_openers_result;
+        assert right_closers_result == 2 : right_closers_result;
+        assert !combine(crossed_left, crossed_right).isValid();
+
+        // case test
+        // combining three pieces in either grouping gives the same result
+        ByteBuffer three = ByteBuffer.wrap(")(([]))({".getBytes(StandardCharsets.US_ASCII));
+        BracketSummary a = of(three, 0, 2);
+        BracketSummary b = of(three, 2, 5);
+        BracketSummary c = of(three, 5, 9);
+
+        BracketSummary leftFirst = combine(combine(a, b), c);
+        BracketSummary rightFirst = combine(a, combine(b, c));
+        BracketSummary all = of(three, 0, 9);
+
+        assert leftFirst.isValid() && rightFirst.isValid() && all.isValid();
+        assert leftFirst.unmatchedClosers() == 1 && rightFirst.unmatchedClosers() == 1 : leftFirst.unmatchedClosers();
+        assert leftFirst.unmatchedOpeners() == 2 && rightFirst.unmatchedOpeners() == 2 : leftFirst.unmatchedOpeners();
+        assert all.unmatchedClosers() == 1 && all.unmatchedOpeners() == 2;
+
+        // text between the brackets is skipped by `ofText` only
+        String code = "f(x) { a[i] = (b); }";
+        BracketSummary code_result = ofText(code, 0, code.length());
+        assert code_result.isBalanced();
+        assert !of(ByteBuffer.wrap(code.getBytes(StandardCharsets.US_ASCII)), 0, code.length()).isValid();
+
+        int mismatch_result = firstMismatch(ofText("([", 0, 2), "x]a)}", 0, 5);
+        assert mismatch_result == 4 : mismatch_result;
+
+        System.out.println(whole.isBalanced());
+    }
+}
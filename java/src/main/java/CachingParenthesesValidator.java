@@ -0,0 +1,362 @@
+/*
+    Author: Andreas Hammarstrand
+    Written: 2026/10/18
+    Purpose:
+        CachingParenthesesValidator remembers the answers of
+        ParenthesesValidator for payloads it has seen before, so that a
+        repeated payload is answered without scanning it for brackets. A
+        payload is looked up by a 64-bit hash of its content, computed a
+        word at a time, together with its length. Since different payloads
+        can share a hash, every entry keeps a copy of its payload, and an
+        answer is only used if the payloads are byte for byte the same; a
+        cached answer is therefore never wrong, a collision only costs a
+        scan.
+        The cache is bounded by the bytes of the payloads it keeps. Entries
+        are kept in access order and the least recently used entries are
+        evicted first. Payloads larger than the whole budget are validated
+        but not cached.
+    Usage:
+        Create an instance with
+        `new CachingParenthesesValidator(long maxBytes, boolean ignoreText)`
+        and validate with `boolean validate(ByteBuffer buffer)`, which
+        consumes the remaining bytes of the buffer as
+        `ParenthesesValidator.validate` does. `hits()`, `misses()`,
+        `evictions()` and `collisions()` report how the cache did. It may be
+        used by several threads, payloads are only scanned outside of the
+        lock. To run tests, run static main function of the class.
+ */
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+public class CachingParenthesesValidator
+{
+    // the bytes an entry costs on top of its payload
+    private static final int ENTRY_OVERHEAD = 64;
+
+    private static final long PRIME_1 = 0x9E3779B185EBCA87L;
+    private static final long PRIME_2 = 0xC2B2AE3D27D4EB4FL;
+
+    private static class Key
+    {
+        final long hash;
+        final int length;
+
+        Key(long hash, int length)
+        {
+            this.hash = hash;
+            this.length = length;
+        }
+
+        @Override
+        public boolean equals(Object other)
+        {
+            if (!(other instanceof Key))
+            {
+                return false;
+            }
+
+            Key key = (Key)other;
+            return hash == key.hash && length == key.length;
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return (int)(hash ^ (hash >>> 32));
+        }
+    }
+
+    private static class Entry
+    {
+        final byte[] payload;
+        final boolean balanced;
+
+        Entry(byte[] payload, boolean balanced)
+        {
+            this.payload = payload;
+            this.balanced = balanced;
+        }
+    }
+
+    // in access order, the least recently used entry first
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<Key, Entry>(16, 0.75f, true);
+
+    private final long maxBytes;
+    private long bytes;
+
+    private final ThreadLocal<ParenthesesValidator> validators;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long collisions;
+
+    public CachingParenthesesValidator(long maxBytes, boolean ignoreText)
+    {
+        if (maxBytes < 0)
+        {
+            throw new IllegalArgumentException();
+        }
+
+        this.maxBytes = maxBytes;
+        validators = ThreadLocal.withInitial(() -> new ParenthesesValidator(ignoreText));
+    }
+
+    // returns a 64-bit hash of the remaining bytes of `buffer`, read eight
+    // bytes at a time. the result does not depend on the byte order of the
+    // buffer.
+    static long hash(ByteBuffer buffer)
+    {
+        int from = buffer.position();
+        int to = buffer.limit();
+        boolean littleEndian = buffer.order() == ByteOrder.LITTLE_ENDIAN;
+
+        long h = PRIME_2 ^ (to - from) * PRIME_1;
+        int i = from;
+
+        for (; i + 8 <= to; i += 8)
+        {
+            long word = buffer.getLong(i);
+            if (littleEndian)
+            {
+                word = Long.reverseBytes(word);
+            }
+
+            h ^= Long.rotateLeft(word * PRIME_2, 31) * PRIME_1;
+            h = Long.rotateLeft(h, 27) * PRIME_1 + PRIME_2;
+        }
+
+        for (; i < to; i++)
+        {
+            h ^= (buffer.get(i) & 0xFFL) * PRIME_1;
+            h = Long.rotateLeft(h, 11) * PRIME_2;
+        }
+
+        // final mix, so that every input bit affects every output bit
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    // returns true if `payload` holds the same bytes as the remaining bytes
+    // of `buffer`
+    private static boolean sameContent(byte[] payload, ByteBuffer buffer)
+    {
+        return ByteBuffer.wrap(payload).equals(buffer);
+    }
+
+    // returns the cached answer for the remaining bytes of `buffer`, or null
+    private synchronized Boolean lookup(Key key, ByteBuffer buffer)
+    {
+        Entry entry = entries.get(key);
+        if (entry != null)
+        {
+            if (sameContent(entry.payload, buffer))
+            {
+                hits++;
+                return entry.balanced;
+            }
+
+            collisions++;
+        }
+
+        misses++;
+        return null;
+    }
+
+    // caches the answer for the remaining bytes of `buffer`, evicting the
+    // least recently used entries to stay within the budget
+    private synchronized void store(Key key, ByteBuffer buffer, boolean balanced)
+    {
+        long weight = key.length + ENTRY_OVERHEAD;
+        if (weight > maxBytes)
+        {
+            return;
+        }
+
+        byte[] payload = new byte[key.length];
+        buffer.duplicate().get(payload);
+
+        // a colliding entry is replaced by the newer payload
+        Entry old = entries.put(key, new Entry(payload, balanced));
+        if (old != null)
+        {
+            bytes -= old.payload.length + ENTRY_OVERHEAD;
+        }
+
+        bytes += weight;
+
+        Iterator<Map.Entry<Key, Entry>> eldest = entries.entrySet().iterator();
+        while (bytes > maxBytes)
+        {
+            Entry evicted = eldest.next().getValue();
+            eldest.remove();
+
+            bytes -= evicted.payload.length + ENTRY_OVERHEAD;
+            evictions++;
+        }
+    }
+
+    // returns true if the remaining bytes of `buffer` are balanced, and
+    // consumes them.
+    public boolean validate(ByteBuffer buffer)
+    {
+        Key key = new Key(hash(buffer), buffer.remaining());
+
+        Boolean cached = lookup(key, buffer);
+        if (cached != null)
+        {
+            buffer.position(buffer.limit());
+            return cached;
+        }
+
+        ParenthesesValidator validator = validators.get();
+        validator.reset();
+        boolean balanced = validator.feed(buffer.duplicate()) && validator.isBalanced();
+
+        store(key, buffer, balanced);
+        buffer.position(buffer.limit());
+        return balanced;
+    }
+
+    // returns true if `input` is balanced.
+    public boolean validate(String input)
+    {
+        return validate(ByteBuffer.wrap(input.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    // returns the amount of payloads answered from the cache.
+    public synchronized long hits()
+    {
+        return hits;
+    }
+
+    // returns the amount of payloads that had to be scanned.
+    public synchronized long misses()
+    {
+        return misses;
+    }
+
+    // returns the amount of entries evicted to stay within the budget.
+    public synchronized long evictions()
+    {
+        return evictions;
+    }
+
+    // returns the amount of lookups that found a different payload with the
+    // same hash and length.
+    public synchronized long collisions()
+    {
+        return collisions;
+    }
+
+    // returns the amount of cached payloads.
+    public synchronized int size()
+    {
+        return entries.size();
+    }
+
+    // returns the bytes the cache currently counts against its budget.
+    public synchronized long bytes()
+    {
+        return bytes;
+    }
+
+    // returns a summary of the statistics of the cache.
+    @Override
+    public synchronized String toString()
+    {
+        long lookups = hits + misses;
+        return String.format("%d hits, %d misses (%.1f%% hit rate), %d evictions, %d collisions, %d entries, %d bytes",
+                hits, misses, lookups == 0 ? 0.0 : 100.0 * hits / lookups, evictions, collisions,
+                entries.size(), bytes);
+    }
+
+    // test method
+    public static void main(String[] args)
+    {
+        CachingParenthesesValidator cache = new CachingParenthesesValidator(1024 * 1024, false);
+
+        // the second time a payload is seen, it is answered from the cache
+        boolean first_result = cache.validate("([]{()})");
+        boolean second_result = cache.validate("([]{()})");
+        boolean unbalanced_result = cache.validate("(]");
+        boolean unbalanced_again_result = cache.validate("(]");
+
+        assert first_result && second_result;
+        assert !unbalanced_result && !unbalanced_again_result;
+        assert cache.hits() == 2 : cache.hits();
+        assert cache.misses() == 2 : cache.misses();
+
+        // the buffer is consumed on a hit as on a miss
+        ByteBuffer buffer = ByteBuffer.wrap("xx([]{()})".getBytes(StandardCharsets.US_ASCII));
+        buffer.position(2);
+        cache.validate(buffer);
+        assert !buffer.hasRemaining();
+        assert cache.hits() == 3 : cache.hits();
+
+        // the hash does not depend on the byte order or the position of the
+        // payload
+        byte[] bytes = "some payload that is longer than a word".getBytes(StandardCharsets.US_ASCII);
+        ByteBuffer big = ByteBuffer.wrap(bytes);
+        ByteBuffer little = ByteBuffer.allocateDirect(bytes.length + 3).order(ByteOrder.LITTLE_ENDIAN);
+        little.position(3);
+        little.put(bytes);
+        little.position(3);
+        assert hash(big) == hash(little);
+
+        // a forced collision: an entry with the same key but another payload
+        // must not give its answer
+        Key key = new Key(hash(ByteBuffer.wrap("()".getBytes(StandardCharsets.US_ASCII))), 2);
+        cache.store(key, ByteBuffer.wrap("()".getBytes(StandardCharsets.US_ASCII)), true);
+        Boolean collision_result = cache.lookup(key, ByteBuffer.wrap("((".getBytes(StandardCharsets.US_ASCII)));
+
+        assert collision_result == null;
+        assert cache.collisions() == 1 : cache.collisions();
+
+        // case test
+        // a small budget, random payloads drawn from a few templates: the
+        // answers must match ParenthesesValidator, the budget must hold and
+        // the least recently used payloads must be evicted.
+        CachingParenthesesValidator small = new CachingParenthesesValidator(4096, false);
+        Random random = new Random(10);
+        String[] templates = new String[200];
+        for (int i = 0; i < templates.length; i++)
+        {
+            StringBuilder sb = new StringBuilder();
+            int length = random.nextInt(60);
+            for (int j = 0; j < length; j++)
+            {
+                sb.append("()[]{}".charAt(random.nextInt(6)));
+            }
+
+            templates[i] = sb.toString();
+        }
+
+        for (int n = 0; n < 100_000; n++)
+        {
+            // a few templates are far more common than the rest
+            String payload = templates[random.nextInt(4) == 0 ? random.nextInt(200) : random.nextInt(10)];
+
+            boolean cached_result = small.validate(payload);
+            boolean scanned_result = ParenthesesValidator.validate(payload);
+
+            assert cached_result == scanned_result : payload;
+            assert small.bytes() <= 4096 : small.bytes();
+        }
+
+        assert small.evictions() > 0;
+        assert small.hits() > small.misses();
+
+        System.out.println(small);
+    }
+}
@@ -0,0 +1,254 @@
+/*
+    Author: Andreas Hammarstrand
+    Written: 2026/10/18
+    Purpose:
+        CharStack is an array-based implementation of a stack of primitive
+        `char` values. It behaves exactly like Stack<Character> but stores
+        the values in a `char[]` so neither `push` nor `pop` boxes its value.
+    Usage:
+        CharStack is instantiated through `new CharStack()`. Items are added
+        to the stack through `push(char item)` and removed from the stack
+        through `pop()`. `iterator()` returns a `CharStack.CharIterator`,
+        use `nextChar()` on it to walk the stack without boxing. To run tests,
+        run static main function of the class.
+ */
+
+import java.util.Iterator;
+
+public class CharStack implements Iterable<Character>
+{
+    public CharStack()
+    {
+        values = new char[8];
+    }
+
+    private char[] values;
+
+    // `index` is the index of the next empty position
+    private int index;
+
+    // returns the number of elements in the stack.
+    public int size()
+    {
+        return index;
+    }
+
+    // returns true if stack is empty, otherwise false.
+    public boolean isEmpty()
+    {
+        return index == 0;
+    }
+
+    // creates a new array of larger or smaller size and fills it
+    // with the values from the previous array, then assigns the
+    // new array as the stacks active array.
+    private void resize(int newLength)
+    {
+        char[] newValues = new char[newLength];
+        System.arraycopy(values, 0, newValues, 0, index);
+        values = newValues;
+    }
+
+    // returns the array backing the stack, the elements are at
+    // `[0..size())` from the bottom up. used for bulk copies by Snapshots.
+    char[] array()
+    {
+        return values;
+    }
+
+    // makes `values` the array of the stack, holding `size` elements from
+    // the bottom up. `values` needs room for at least one more element, the
+    // stack grows as usual on the next push.
+    void install(char[] values, int size)
+    {
+        this.values = values;
+        index = size;
+    }
+
+    // removes and returns the element on the top of the stack.
+    public char pop()
+    {
+        // same contract as `Stack.pop`; popping an empty stack is an error.
+        if (index == 0)
+        {
+            throw new IndexOutOfBoundsException();
+        }
+
+        char value = values[--index];
+
+        // shrink when only a quarter of the array is in use
+        if (index < values.length / 4)
+        {
+            resize(values.length / 2);
+        }
+
+        return value;
+    }
+
+    // returns the element on the top of the stack without removing it.
+    public char peek()
+    {
+        if (index == 0)
+        {
+            throw new IndexOutOfBoundsException();
+        }
+
+        return values[index - 1];
+    }
+
+    // put the value on the top of the stack.
+    public void push(char value)
+    {
+        values[index++] = value;
+
+        // grow when more than half of the array is in use
+        if (index > values.length / 2)
+        {
+            resize(values.length * 2);
+        }
+    }
+
+    // returns a string representation of the object instance.
+    @Override
+    public String toString()
+    {
+        if (isEmpty())
+        {
+            return "[]";
+        }
+
+        StringBuilder sb = new StringBuilder();
+        sb.append('[');
+
+        for (int i = 0; i < index - 1; i++)
+        {
+            sb
+                    .append(values[i])
+                    .append(", ");
+        }
+
+        sb
+                .append(values[index - 1]);
+
+        sb.append(']');
+        return sb.toString();
+    }
+
+    // an iterator over `char` values, `nextChar()` avoids boxing while
+    // `next()` is kept so the stack can still be used in for-each loops.
+    public interface CharIterator extends Iterator<Character>
+    {
+        char nextChar();
+
+        default Character next()
+        {
+            return nextChar();
+        }
+    }
+
+    // returns an iterator that spans over the stack, from top to bottom.
+    public CharIterator iterator()
+    {
+        return new CharStackIterator();
+    }
+
+    private class CharStackIterator implements CharIterator
+    {
+        int stackPointer;
+
+        public CharStackIterator()
+        {
+            stackPointer = index;
+        }
+
+        // returns a bool specifying if the iterator has following element.
+        public boolean hasNext()
+        {
+            return stackPointer > 0;
+        }
+
+        // moves the iterator to the next value and returns it, unboxed.
+        public char nextChar()
+        {
+            return values[--stackPointer];
+        }
+
+        // warnings are given when `remove` is not overridden, throwing UnsupportedOperation exception instead.
+        public void remove()
+        {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    // test method
+    public static void main(String[] args)
+    {
+        CharStack s = new CharStack();
+
+        // check that `size` and `isEmpty` are correct at the initial state
+        int initial_size_result = s.size();
+
+        assert initial_size_result == 0 : initial_size_result;
+        assert s.isEmpty();
+
+        // after 1 push to the stack the `size` should be 1 and `isEmpty` should be false
+        s.push('a');
+
+        int push_size_result = s.size();
+        char peek_result = s.peek();
+
+        assert push_size_result == 1 : push_size_result;
+        assert peek_result == 'a' : peek_result;
+        assert !s.isEmpty();
+
+        // popping the only value should bring the stack back to its initial state
+        char popped_result = s.pop();
+
+        assert popped_result == 'a' : popped_result;
+        assert s.size() == 0 : s.size();
+        assert s.isEmpty();
+
+        // the `toString` function should list the values from bottom to top,
+        // pushing five values also forces the array to grow.
+        for (char c : "hello".toCharArray())
+        {
+            s.push(c);
+        }
+
+        String toString_result = s.toString();
+        assert toString_result.equals("[h, e, l, l, o]") : toString_result;
+
+        // iteration goes from top to bottom, same as `Stack<T>`
+        StringBuilder iterated = new StringBuilder();
+        CharIterator iter = s.iterator();
+        while (iter.hasNext())
+        {
+            iterated.append(iter.nextChar());
+        }
+
+        assert iterated.toString().equals("olleh") : iterated;
+
+        // case test
+        // push and pop a large amount of values to make sure growing and
+        // shrinking keeps the values intact.
+        while (!s.isEmpty())
+        {
+            s.pop();
+        }
+
+        int count = 1_000_000;
+        for (int i = 0; i < count; i++)
+        {
+            s.push((char)i);
+        }
+
+        for (int i = count - 1; i >= 0; i--)
+        {
+            char value = s.pop();
+            assert value == (char)i : (int)value;
+        }
+
+        assert s.isEmpty();
+        System.out.println(s);
+    }
+}
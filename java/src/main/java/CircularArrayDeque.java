@@ -0,0 +1,304 @@
+/*
+    Author: Andreas Hammarstrand
+    Written: 2026/10/18
+    Purpose:
+        `CircularArrayDeque<T>` is a double-ended queue with the same
+        contract as `CircularLinkedList<T>`, but based on a circular array.
+        All four end operations are O(1) amortized, including `removeLast`
+        which in the singly linked list has to walk the whole list, and no
+        node is allocated per element. The array length is always a power of
+        two so an index can be wrapped with a mask.
+    Usage:
+        Create an instance with `new CircularArrayDeque<T>()` where `T`
+        is wanted type. To add values, use either `void addLast(T item)`
+        or `void addFirst(T item)`, to remove values use either
+        `T removeLast()` or `T removeFirst()`. To run tests, run static
+        main function of the class.
+ */
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+public class CircularArrayDeque<T> implements Iterable<T>
+{
+    private static final int MIN_CAPACITY = 8;
+
+    private T[] values;
+
+    // `first` is the index of the first element, `size` the amount of
+    // elements; the last element is at `first + size - 1`, wrapped by `mask`.
+    private int first;
+    private int size;
+    private int mask;
+
+    public CircularArrayDeque()
+    {
+        values = (T[])new Object[MIN_CAPACITY];
+        mask = MIN_CAPACITY - 1;
+    }
+
+    // returns the amount of elements in the list.
+    public int size()
+    {
+        return size;
+    }
+
+    // returns true if the list is empty, otherwise false.
+    public boolean isEmpty()
+    {
+        return size == 0;
+    }
+
+    // creates a new array of the given power of two length and copies the
+    // elements to it, starting at index 0.
+    private void resize(int newLength)
+    {
+        T[] newValues = (T[])new Object[newLength];
+
+        int firstPart = Math.min(size, values.length - first);
+        System.arraycopy(values, first, newValues, 0, firstPart);
+        System.arraycopy(values, 0, newValues, firstPart, size - firstPart);
+
+        values = newValues;
+        mask = newLength - 1;
+        first = 0;
+    }
+
+    // shrinks the array when only a quarter of it is in use
+    private void shrinkIfSparse()
+    {
+        if (values.length > MIN_CAPACITY && size < values.length / 4)
+        {
+            resize(values.length / 2);
+        }
+    }
+
+    // adds the item to the front of the list
+    public void addFirst(T item)
+    {
+        if (size == values.length)
+        {
+            resize(values.length * 2);
+        }
+
+        first = (first - 1) & mask;
+        values[first] = item;
+        size++;
+    }
+
+    // adds the item to the end of the list
+    public void addLast(T item)
+    {
+        if (size == values.length)
+        {
+            resize(values.length * 2);
+        }
+
+        values[(first + size) & mask] = item;
+        size++;
+    }
+
+    // removes the first value and returns it
+    public T removeFirst()
+    {
+        if (size == 0)
+        {
+            throw new IndexOutOfBoundsException();
+        }
+
+        T value = values[first];
+
+        // the slot is cleared so the list does not keep the value alive
+        values[first] = null;
+        first = (first + 1) & mask;
+        size--;
+
+        shrinkIfSparse();
+        return value;
+    }
+
+    // removes the last value and returns it
+    public T removeLast()
+    {
+        if (size == 0)
+        {
+            throw new IndexOutOfBoundsException();
+        }
+
+        int last = (first + size - 1) & mask;
+        T value = values[last];
+
+        values[last] = null;
+        size--;
+
+        shrinkIfSparse();
+        return value;
+    }
+
+    // returns a string representation of the deque instance.
+    @Override
+    public String toString()
+    {
+        if (size == 0)
+        {
+            return "[]";
+        }
+
+        // printed lists starts and end with '[' and ']' respectively
+        StringBuilder sb = new StringBuilder();
+        sb.append('[');
+
+        for (int i = 0; i < size - 1; i++)
+        {
+            sb
+                    .append(values[(first + i) & mask].toString())
+                    .append(", ");
+        }
+
+        // append last element
+        sb.append(values[(first + size - 1) & mask].toString());
+
+        sb.append(']');
+        return sb.toString();
+    }
+
+    // returns an iterator over the list, from first to last.
+    public Iterator<T> iterator()
+    {
+        return new CircularArrayDequeIterator();
+    }
+
+    private class CircularArrayDequeIterator implements Iterator<T>
+    {
+        int offset;
+
+        // returns a bool specifying if the iterator has following element.
+        public boolean hasNext()
+        {
+            return offset < size;
+        }
+
+        // moves the iterator to the next value and returns it.
+        public T next()
+        {
+            if (offset >= size)
+            {
+                throw new NoSuchElementException();
+            }
+
+            return values[(first + offset++) & mask];
+        }
+
+        // warnings are given when `remove` is not overridden, throwing UnsupportedOperation exception instead.
+        public void remove()
+        {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    // test method
+    public static void main(String[] args)
+    {
+        CircularArrayDeque<Character> l = new CircularArrayDeque<Character>();
+
+        int initial_size_result = l.size();
+        String initial_toString = l.toString();
+
+        assert l.isEmpty();
+        assert initial_size_result == 0 : initial_size_result;
+        assert initial_toString.equals("[]") : initial_toString;
+
+        // here `addFirst` and `removeFirst` are tested
+        l.addFirst('a');
+
+        int addFirst_size_result = l.size();
+        String addFirst_toString = l.toString();
+
+        assert !l.isEmpty();
+        assert addFirst_size_result == 1 : addFirst_size_result;
+        assert addFirst_toString.equals("[a]") : addFirst_toString;
+
+        char removeFirst_result = l.removeFirst();
+
+        assert l.isEmpty();
+        assert removeFirst_result == 'a' : removeFirst_result;
+
+        // here `addLast` and `removeLast` are tested
+        l.addLast('h');
+        l.addLast('e');
+        l.addLast('l');
+        l.addLast('l');
+        l.addLast('o');
+
+        String multiple_values_toString = l.toString();
+        assert multiple_values_toString.equals("[h, e, l, l, o]") : multiple_values_toString;
+
+        // the iterator visits every element, first to last
+        StringBuilder iterated = new StringBuilder();
+        for (char c : l)
+        {
+            iterated.append(c);
+        }
+
+        assert iterated.toString().equals("hello") : iterated;
+
+        char removeLast_result = l.removeLast();
+        assert removeLast_result == 'o' : removeLast_result;
+
+        // adding to the front wraps around the start of the array
+        l.addFirst('y');
+        l.addFirst('e');
+        l.addFirst('h');
+
+        String wrapped_toString = l.toString();
+        assert wrapped_toString.equals("[h, e, y, h, e, l, l]") : wrapped_toString;
+
+        while (!l.isEmpty())
+        {
+            l.removeLast();
+        }
+
+        // case test
+        // random operations on both ends must give the same results as
+        // `CircularLinkedList`, while the array grows and shrinks.
+        Random random = new Random(4);
+        CircularArrayDeque<Integer> deque = new CircularArrayDeque<Integer>();
+        CircularLinkedList<Integer> list = new CircularLinkedList<Integer>();
+
+        for (int n = 0; n < 50_000; n++)
+        {
+            int operation = random.nextInt(4);
+            if (list.isEmpty() || operation == 0)
+            {
+                deque.addFirst(n);
+                list.addFirst(n);
+            }
+            else if (operation == 1)
+            {
+                deque.addLast(n);
+                list.addLast(n);
+            }
+            else if (operation == 2)
+            {
+                int deque_result = deque.removeFirst();
+                int list_result = list.removeFirst();
+                assert deque_result == list_result : deque_result + " " + list_result;
+            }
+            else
+            {
+                int deque_result = deque.removeLast();
+                int list_result = list.removeLast();
+                assert deque_result == list_result : deque_result + " " + list_result;
+            }
+
+            assert deque.size() == list.size() : deque.size();
+        }
+
+        String deque_toString = deque.toString();
+        String list_toString = list.toString();
+        assert deque_toString.equals(list_toString) : deque_toString;
+
+        System.out.println(l);
+    }
+}
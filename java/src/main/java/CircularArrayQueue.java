@@ -0,0 +1,242 @@
+/*
+    Author: Andreas Hammarstrand
+    Written: 2026/10/18
+    Purpose:
+        CircularArrayQueue<T> is a generic queue implementation based on a
+        circular array. It has the same contract as
+        CircularDoubleLinkedQueue<T> but does not allocate a node per
+        enqueued item; the array length is always a power of two so an
+        index can be wrapped with a mask instead of a modulo.
+    Usage:
+        Create an instance with `new CircularArrayQueue<T>()` where `T`
+        is wanted type. Use `void enqueue(T item)` to add items to the queue
+        and `T dequeue()` to remove (and retrieve those removed) items from
+        the queue. To run tests, run static main function of the class.
+ */
+
+import java.util.Iterator;
+
+public class CircularArrayQueue<T> implements Queue<T>
+{
+    private static final int MIN_CAPACITY = 8;
+
+    private T[] values;
+
+    // `head` is the index of the first element, `size` the amount of
+    // elements. the index of the next empty position is `head + size`,
+    // wrapped by `mask`.
+    private int head;
+    private int size;
+    private int mask;
+
+    public CircularArrayQueue()
+    {
+        values = (T[])new Object[MIN_CAPACITY];
+        mask = MIN_CAPACITY - 1;
+    }
+
+    // returns amount of elements in the queue.
+    public int size()
+    {
+        return size;
+    }
+
+    // returns true if the queue is empty, otherwise false.
+    public boolean isEmpty()
+    {
+        return size == 0;
+    }
+
+    // creates a new array of the given power of two length and copies the
+    // elements to it, starting at index 0.
+    private void resize(int newLength)
+    {
+        T[] newValues = (T[])new Object[newLength];
+
+        // the elements are either one contiguous run or wrap around the end
+        // of the array, in which case they are copied in two parts.
+        int firstPart = Math.min(size, values.length - head);
+        System.arraycopy(values, head, newValues, 0, firstPart);
+        System.arraycopy(values, 0, newValues, firstPart, size - firstPart);
+
+        values = newValues;
+        mask = newLength - 1;
+        head = 0;
+    }
+
+    // puts the item at the end of the queue.
+    public void enqueue(T item)
+    {
+        // grow when the array is full
+        if (size == values.length)
+        {
+            resize(values.length * 2);
+        }
+
+        values[(head + size) & mask] = item;
+        size++;
+    }
+
+    // returns and removes the value from the front of the queue.
+    public T dequeue()
+    {
+        if (size == 0)
+        {
+            throw new IndexOutOfBoundsException();
+        }
+
+        T value = values[head];
+
+        // the slot is cleared so the queue does not keep the value alive
+        values[head] = null;
+        head = (head + 1) & mask;
+        size--;
+
+        // shrink when only a quarter of the array is in use
+        if (values.length > MIN_CAPACITY && size < values.length / 4)
+        {
+            resize(values.length / 2);
+        }
+
+        return value;
+    }
+
+    // returns a string representation of the queue instance.
+    @Override
+    public String toString()
+    {
+        // using a standard case to return a standard value
+        if (isEmpty())
+        {
+            return "[]";
+        }
+
+        StringBuilder sb = new StringBuilder();
+        sb.append('[');
+
+        for (int i = 0; i < size - 1; i++)
+        {
+            sb
+                    .append(values[(head + i) & mask].toString())
+                    .append(", ");
+        }
+
+        // append last element
+        sb.append(values[(head + size - 1) & mask].toString());
+
+        sb.append(']');
+        return sb.toString();
+    }
+
+    // returns an iterator that spans over the queue, from front to back.
+    public Iterator<T> iterator()
+    {
+        return new CircularArrayQueueIterator();
+    }
+
+    private class CircularArrayQueueIterator implements Iterator<T>
+    {
+        int offset;
+
+        // returns a bool specifying if the iterator has following element.
+        public boolean hasNext()
+        {
+            return offset < size;
+        }
+
+        // moves the iterator to the next value and returns it.
+        public T next()
+        {
+            return values[(head + offset++) & mask];
+        }
+
+        // warnings are given when `remove` is not overridden,
+        // throwing UnsupportedOperation exception instead.
+        public void remove()
+        {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    // test method
+    public static void main(String[] args)
+    {
+        CircularArrayQueue<Character> q = new CircularArrayQueue<Character>();
+
+        // check that `size` and `isEmpty` are correct at the initial
+        // state of a `CircularArrayQueue`
+        int initial_size_result = q.size();
+        String initial_toString = q.toString();
+
+        assert q.isEmpty();
+        assert initial_size_result == 0 : initial_size_result;
+        assert initial_toString.equals("[]") : initial_toString;
+
+        // after 1 enqueue to the queue the `size` should be 1 and `isEmpty`
+        // should be false
+        q.enqueue('a');
+
+        int enqueue_size_result = q.size();
+        String enqueue_toString = q.toString();
+
+        assert !q.isEmpty();
+        assert enqueue_size_result == 1 : enqueue_size_result;
+        assert enqueue_toString.equals("[a]") : enqueue_toString;
+
+        // dequeueing the only value resets the queue to its initial state
+        char dequeue_result = q.dequeue();
+
+        assert q.isEmpty();
+        assert dequeue_result == 'a' : dequeue_result;
+        assert q.toString().equals("[]") : q;
+
+        q.enqueue('h');
+        q.enqueue('e');
+        q.enqueue('l');
+        q.enqueue('l');
+        q.enqueue('o');
+
+        String multiple_values_toString = q.toString();
+        assert multiple_values_toString.equals("[h, e, l, l, o]") : multiple_values_toString;
+
+        // the iterator visits every element, front to back
+        StringBuilder iterated = new StringBuilder();
+        for (char c : q)
+        {
+            iterated.append(c);
+        }
+
+        assert iterated.toString().equals("hello") : iterated;
+
+        // case test
+        // interleave enqueues and dequeues so that the elements wrap around
+        // the end of the array while it grows and shrinks.
+        Queue<Integer> numbers = new CircularArrayQueue<Integer>();
+        int next_in = 0, next_out = 0;
+        for (int round = 0; round < 1000; round++)
+        {
+            for (int i = 0; i < round % 37; i++)
+            {
+                numbers.enqueue(next_in++);
+            }
+
+            for (int i = 0; i < round % 23 && !numbers.isEmpty(); i++)
+            {
+                int value = numbers.dequeue();
+                assert value == next_out : value;
+                next_out++;
+            }
+        }
+
+        assert numbers.size() == next_in - next_out : numbers.size();
+
+        while (!numbers.isEmpty())
+        {
+            int value = numbers.dequeue();
+            assert value == next_out : value;
+            next_out++;
+        }
+
+        System.out.println(q);
+    }
+}
@@ -1,7 +1,7 @@
 /*
     Author: Andreas Hammarstrand
     Written: 2020/09/01
-    Updated: 2020/09/06
+    Updated: 2026/10/18
     Purpose:
         CircularDoubleLinkedQueue<T> is a generic queue implementation, based on double linked
         nodes and is linked circularly.
@@ -10,12 +10,16 @@
         is wanted type. Use `void enqueue(T item)` to add items to the list
         and `T dequeue()` to remove (and retrieve those removed) items from
         the list. To run tests, run static main function of the class.
+        Node recycling is opt-in through `new CircularDoubleLinkedQueue<T>(int)`
+        or `setPoolCapacity(int)`; removed nodes are then kept on a bounded
+        free list and reused by later enqueues. `trimPool(int)` releases
+        pooled nodes.
  */
 
 import java.util.Iterator;
 import java.util.Scanner;
 
-public class CircularDoubleLinkedQueue<T> implements Iterable<T>
+public class CircularDoubleLinkedQueue<T> implements Queue<T>
 {
     protected class Node
     {
@@ -33,6 +37,12 @@ public class CircularDoubleLinkedQueue<T> implements Iterable<T>
     private Node first, last;
     private int size;
 
+    // free list of removed nodes, linked through `next`.
+    // `poolCapacity` is 0 unless recycling has been turned on.
+    private Node pool;
+    private int poolSize;
+    private int poolCapacity;
+
     // returns the first node of the queue
     protected Node first()
     {
@@ -66,14 +76,87 @@ public class CircularDoubleLinkedQueue<T> implements Iterable<T>
         size = 0;
     }
 
+    // creates a queue that keeps up to `poolCapacity` removed nodes for reuse.
+    public CircularDoubleLinkedQueue(int poolCapacity)
+    {
+        this();
+        setPoolCapacity(poolCapacity);
+    }
+
+    // returns a node holding `item`, taken from the pool when possible.
+    protected Node newNode(T item)
+    {
+        Node n = pool;
+        if (n == null)
+        {
+            n = new Node();
+        }
+        else
+        {
+            pool = n.next;
+            poolSize--;
+        }
+
+        n.value = item;
+        return n;
+    }
+
+    // hands a node that has been unlinked from the queue back to the pool.
+    // the value is always cleared so the pool never keeps payloads alive.
+    protected void recycle(Node node)
+    {
+        node.value = null;
+        node.previous = null;
+
+        if (poolSize < poolCapacity)
+        {
+            node.next = pool;
+            pool = node;
+            poolSize++;
+        }
+        else
+        {
+            node.next = null;
+        }
+    }
+
+    // sets the maximum amount of nodes kept for reuse, 0 turns recycling off.
+    public void setPoolCapacity(int poolCapacity)
+    {
+        if (poolCapacity < 0)
+        {
+            throw new IllegalArgumentException();
+        }
+
+        this.poolCapacity = poolCapacity;
+        trimPool(poolCapacity);
+    }
+
+    // releases pooled nodes until at most `maxSize` are left.
+    public void trimPool(int maxSize)
+    {
+        while (poolSize > maxSize)
+        {
+            Node n = pool;
+            pool = n.next;
+            n.next = null;
+            poolSize--;
+        }
+    }
+
+    // returns the amount of nodes currently waiting in the pool.
+    public int poolSize()
+    {
+        return poolSize;
+    }
+
     // puts the item at the end of the queue.
     public void enqueue(T item)
     {
         // a value is added to the queue; increment counter
         size++;
 
-        Node n = new Node();
-        n.value = item;
+        Node n = newNode(item);
 
         // if `first` is null then the new node is first and last
         if (first == null)
@@ -100,7 +183,8 @@ public class CircularDoubleLinkedQueue<T> implements Iterable<T>
     {
         // put away the saved value so it can be returned later.
         // this value is now considered removed, or "dequeued".
-        T value = first.value;
+        Node removed = first;
+        T value = removed.value;
 
         // count is decremented from removed value and a check to see if it was the
         // last element is made.
@@ -109,6 +193,7 @@ public class CircularDoubleLinkedQueue<T> implements Iterable<T>
         if (size == 0)
         {
             first = last = null;
+            recycle(removed);
             return value;
         }
 
@@ -122,6 +207,7 @@ public class CircularDoubleLinkedQueue<T> implements Iterable<T>
 
         // update `first` reference to point at the new first node
         first = newFirst;
+        recycle(removed);
 
         return value;
     }
@@ -168,24 +254,28 @@ public class CircularDoubleLinkedQueue<T> implements Iterable<T>
     // returns an iterator that spans over the stack.
     public Iterator<T> iterator()
     {
-        return new FIFOQueueIterator(first, last);
+        return new FIFOQueueIterator(first, size);
     }
 
     // an iterator for CircularDoubleLinkedQueue<T>
     private class FIFOQueueIterator implements Iterator<T>
     {
-        Node current, last;
+        Node current;
 
-        public FIFOQueueIterator(Node first, Node last)
+        // the list is circular so there is no null to stop at, instead the
+        // amount of values left to visit is counted down.
+        int remaining;
+
+        public FIFOQueueIterator(Node first, int size)
         {
             current = first;
-            this.last = last;
+            remaining = size;
         }
 
         // returns a bool specifying if the iterator has following element.
         public boolean hasNext()
         {
-            return current != last;
+            return remaining > 0;
         }
 
         // moves the iterator to the next value and returns it.
@@ -194,6 +284,7 @@ public class CircularDoubleLinkedQueue<T> implements Iterable<T>
             T value = current.value;
 
             current = current.next;
+            remaining--;
 
             return  value;
         }
@@ -269,6 +360,30 @@ public class CircularDoubleLinkedQueue<T> implements Iterable<T>
             q.dequeue();
         }
 
+        // with recycling turned on, dequeued nodes are pooled up to the
+        // capacity and reused by the following enqueues.
+        CircularDoubleLinkedQueue<Character> pooled = new CircularDoubleLinkedQueue<Character>(2);
+        pooled.enqueue('x');
+        pooled.enqueue('y');
+        pooled.enqueue('z');
+        pooled.dequeue();
+        pooled.dequeue();
+        pooled.dequeue();
+
+        int full_pool_size_result = pooled.poolSize();
+        assert full_pool_size_result == 2 : full_pool_size_result;
+
+        pooled.enqueue('w');
+        int reused_pool_size_result = pooled.poolSize();
+        String reused_toString = pooled.toString();
+
+        assert reused_pool_size_result == 1 : reused_pool_size_result;
+        assert reused_toString.equals("[w]") : reused_toString;
+
+        pooled.trimPool(0);
+        int trimmed_pool_size_result = pooled.poolSize();
+        assert trimmed_pool_size_result == 0 : trimmed_pool_size_result;
+
         // case test
         // here the test focuses on regular usage of the type,
         // rather than surface level method testing like above
@@ -1,7 +1,7 @@
 /*
     Author: Andreas Hammarstrand
     Written: 2020/09/03
-    Updated: 2020/09/06
+    Updated: 2026/10/18
     Purpose:
         `CircularLinkedList<T>` is an implementation of a list, based on linked
          nodes and is linked circularly.
@@ -10,7 +10,8 @@
         is wanted type. To add values, use either `void addLast(T item)`
         or `void addFirst(T item)`, to remove values use either
         `T removeLast()` or `T removeFirst()`. To run tests, run static
-        main function of the class.
+        main function of the class. `removeLast` has to walk the whole list,
+        see `CircularArrayDeque<T>` for a deque where it is O(1).
  */
 
 import java.util.Iterator;
@@ -53,23 +54,27 @@ public class CircularLinkedList<T> implements Iterable<T>
     // returns an iterator over the list.
     public Iterator<T> iterator()
     {
-        return new CircularLinkedListIterator(first, last);
+        return new CircularLinkedListIterator(first, size);
     }
 
     private class CircularLinkedListIterator implements Iterator<T>
     {
-        Node current, last;
+        Node current;
 
-        public CircularLinkedListIterator(Node first, Node last)
+        // the list is circular so there is no null to stop at, instead the
+        // amount of values left to visit is counted down.
+        int remaining;
+
+        public CircularLinkedListIterator(Node first, int size)
         {
             current = first;
-            this.last = last;
+            remaining = size;
         }
 
         // returns a bool specifying if the iterator has following element.
         public boolean hasNext()
         {
-            return current != last;
+            return remaining > 0;
         }
 
         // moves the iterator to the next value and returns it.
@@ -78,6 +83,7 @@ public class CircularLinkedList<T> implements Iterable<T>
             T value = current.value;
 
             current = current.next;
+            remaining--;
 
             return  value;
         }
@@ -0,0 +1,84 @@
+/*
+    Author: Andreas Hammarstrand
+    Written: 2026/10/18
+    Purpose:
+        Codec<T> turns values into bytes and back, for the collections that
+        keep their elements outside of the heap, such as SpillableStack.
+        Codecs for the common element types are available as constants.
+    Usage:
+        Use one of `Codec.STRING`, `Codec.INTEGER`, `Codec.LONG` or
+        `Codec.CHARACTER`, or implement `encode` and `decode` for another
+        type; `decode` has to read exactly the bytes `encode` wrote.
+ */
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+public interface Codec<T>
+{
+    // writes `value` to `out`.
+    void encode(T value, DataOutput out) throws IOException;
+
+    // reads a value written by `encode` from `in`.
+    T decode(DataInput in) throws IOException;
+
+    // the length and the UTF-8 bytes of the string. `writeUTF` is not used,
+    // it can not write strings longer than 65535 bytes.
+    Codec<String> STRING = new Codec<String>()
+    {
+        public void encode(String value, DataOutput out) throws IOException
+        {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+
+        public String decode(DataInput in) throws IOException
+        {
+            byte[] bytes = new byte[in.readInt()];
+            in.readFully(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    };
+
+    Codec<Integer> INTEGER = new Codec<Integer>()
+    {
+        public void encode(Integer value, DataOutput out) throws IOException
+        {
+            out.writeInt(value);
+        }
+
+        public Integer decode(DataInput in) throws IOException
+        {
+            return in.readInt();
+        }
+    };
+
+    Codec<Long> LONG = new Codec<Long>()
+    {
+        public void encode(Long value, DataOutput out) throws IOException
+        {
+            out.writeLong(value);
+        }
+
+        public Long decode(DataInput in) throws IOException
+        {
+            return in.readLong();
+        }
+    };
+
+    Codec<Character> CHARACTER = new Codec<Character>()
+    {
+        public void encode(Character value, DataOutput out) throws IOException
+        {
+            out.writeChar(value);
+        }
+
+        public Character decode(DataInput in) throws IOException
+        {
+            return in.readChar();
+        }
+    };
+}
@@ -0,0 +1,433 @@
+/*
+    Author: Andreas Hammarstrand
+    Written: 2026/10/18
+    Purpose:
+        ConcurrentLinkedFifoQueue<T> is a lock-free queue that can be shared
+        by any amount of producer and consumer threads. It is the
+        Michael-Scott queue: a singly linked list with a dummy node at the
+        front, where `head` and `tail` are only ever moved with CAS.
+    Usage:
+        Create an instance with `new ConcurrentLinkedFifoQueue<T>()` and use
+        it like any other `Queue<T>`. Since another thread may empty the
+        queue between `isEmpty()` and `dequeue()`, consumers should use
+        `T poll()`, which returns null instead of throwing when the queue is
+        empty. `size()` is approximate while other threads are active and
+        the iterator is weakly consistent; it never throws because of
+        concurrent modification but may or may not show such changes.
+        To run tests, run static main function of the class.
+ */
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.concurrent.atomic.LongAdder;
+
+public class ConcurrentLinkedFifoQueue<T> implements Queue<T>
+{
+    private static class Node<T>
+    {
+        volatile T value;
+        volatile Node<T> next;
+
+        Node(T value)
+        {
+            this.value = value;
+        }
+    }
+
+    // class literals can only name raw types, so the updaters are declared
+    // with raw types as well
+    @SuppressWarnings("rawtypes")
+    private static final AtomicReferenceFieldUpdater<Node, Node> NEXT =
+            AtomicReferenceFieldUpdater.newUpdater(Node.class, Node.class, "next");
+    @SuppressWarnings("rawtypes")
+    private static final AtomicReferenceFieldUpdater<ConcurrentLinkedFifoQueue, Node> HEAD =
+            AtomicReferenceFieldUpdater.newUpdater(ConcurrentLinkedFifoQueue.class, Node.class, "head");
+    @SuppressWarnings("rawtypes")
+    private static final AtomicReferenceFieldUpdater<ConcurrentLinkedFifoQueue, Node> TAIL =
+            AtomicReferenceFieldUpdater.newUpdater(ConcurrentLinkedFifoQueue.class, Node.class, "tail");
+
+    // `head` always points at a dummy node, the first value is in `head.next`.
+    // `tail` points at the last node or, briefly, at the node before it.
+    private volatile Node<T> head;
+    private volatile Node<T> tail;
+
+    // a striped counter, so that producers and consumers do not all
+    // contend on one more shared field.
+    private final LongAdder count = new LongAdder();
+
+    public ConcurrentLinkedFifoQueue()
+    {
+        head = tail = new Node<T>(null);
+    }
+
+    // puts the item at the end of the queue.
+    public void enqueue(T item)
+    {
+        // null is what `poll` returns for an empty queue
+        if (item == null)
+        {
+            throw new IllegalArgumentException();
+        }
+
+        Node<T> n = new Node<T>(item);
+
+        while (true)
+        {
+            Node<T> last = tail;
+            Node<T> next = last.next;
+
+            if (last != tail)
+            {
+                continue;
+            }
+
+            if (next == null)
+            {
+                // `last` really is the last node, try to link the new node
+                if (NEXT.compareAndSet(last, null, n))
+                {
+                    // swing `tail`; if this fails another thread has already done so
+                    TAIL.compareAndSet(this, last, n);
+                    count.increment();
+                    return;
+                }
+            }
+            else
+            {
+                // `tail` is lagging behind, help the other thread move it forward
+                TAIL.compareAndSet(this, last, next);
+            }
+        }
+    }
+
+    // returns and removes the value from the front of the queue, or null
+    // when the queue is empty.
+    public T poll()
+    {
+        while (true)
+        {
+            Node<T> first = head;
+            Node<T> last = tail;
+            Node<T> next = first.next;
+
+            if (first != head)
+            {
+                continue;
+            }
+
+            if (first == last)
+            {
+                if (next == null)
+                {
+                    return null;
+                }
+
+                // an enqueue is in progress, help it move `tail`
+                TAIL.compareAndSet(this, last, next);
+            }
+            else
+            {
+                T value = next.value;
+
+                // `next` becomes the new dummy node
+                if (HEAD.compareAndSet(this, first, next))
+                {
+                    // clear the value so the dummy node does not keep it alive
+                    next.value = null;
+                    // unlink the old dummy, lets the GC collect it sooner
+                    first.next = first;
+                    count.decrement();
+                    return value;
+                }
+            }
+        }
+    }
+
+    // returns and removes the value from the front of the queue.
+    public T dequeue()
+    {
+        T value = poll();
+        if (value == null)
+        {
+            throw new IndexOutOfBoundsException();
+        }
+
+        return value;
+    }
+
+    // returns the value at the front of the queue without removing it, or
+    // null when the queue is empty.
+    public T peek()
+    {
+        while (true)
+        {
+            Node<T> first = head;
+            Node<T> next = first.next;
+
+            if (next == null)
+            {
+                return null;
+            }
+
+            // a value is only cleared after `head` has moved past `first`,
+            // so if `head` did not move the value read is still valid.
+            T value = next.value;
+            if (first == head)
+            {
+                return value;
+            }
+        }
+    }
+
+    // returns amount of elements in the queue.
+    // the value is approximate when other threads are modifying the queue.
+    public int size()
+    {
+        long sum = count.sum();
+        return (int)Math.max(0, Math.min(Integer.MAX_VALUE, sum));
+    }
+
+    // returns true if the queue is empty, otherwise false.
+    public boolean isEmpty()
+    {
+        return head.next == null;
+    }
+
+    // returns a string representation of the queue instance.
+    @Override
+    public String toString()
+    {
+        StringBuilder sb = new StringBuilder();
+        sb.append('[');
+
+        Iterator<T> iter = iterator();
+        while (iter.hasNext())
+        {
+            sb.append(iter.next().toString());
+            if (iter.hasNext())
+            {
+                sb.append(", ");
+            }
+        }
+
+        sb.append(']');
+        return sb.toString();
+    }
+
+    // returns a weakly consistent iterator that spans over the queue.
+    public Iterator<T> iterator()
+    {
+        return new ConcurrentFIFOQueueIterator();
+    }
+
+    private class ConcurrentFIFOQueueIterator implements Iterator<T>
+    {
+        // the node holding the value returned by the next call to `next`
+        Node<T> current;
+        T nextValue;
+
+        public ConcurrentFIFOQueueIterator()
+        {
+            current = head;
+            advance();
+        }
+
+        // moves to the next node that still holds a value
+        private void advance()
+        {
+            Node<T> n = current.next;
+            while (n != null)
+            {
+                // a node that links to itself has been dequeued,
+                // restart from the current front of the queue.
+                if (n == current)
+                {
+                    n = head.next;
+                    continue;
+                }
+
+                T value = n.value;
+                if (value != null)
+                {
+                    current = n;
+                    nextValue = value;
+                    return;
+                }
+
+                current = n;
+                n = n.next;
+            }
+
+            nextValue = null;
+        }
+
+        // returns a bool specifying if the iterator has following element.
+        public boolean hasNext()
+        {
+            return nextValue != null;
+        }
+
+        // moves the iterator to the next value and returns it.
+        public T next()
+        {
+            T value = nextValue;
+            if (value == null)
+            {
+                throw new NoSuchElementException();
+            }
+
+            advance();
+            return value;
+        }
+
+        // warnings are given when `remove` is not overridden,
+        // throwing UnsupportedOperation exception instead.
+        public void remove()
+        {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    // test method
+    public static void main(String[] args) throws InterruptedException
+    {
+        ConcurrentLinkedFifoQueue<Character> q = new ConcurrentLinkedFifoQueue<Character>();
+
+        // single threaded, the queue behaves like `CircularDoubleLinkedQueue`
+        assert q.isEmpty();
+        assert q.size() == 0 : q.size();
+        assert q.poll() == null;
+        assert q.toString().equals("[]") : q;
+
+        q.enqueue('h');
+        q.enqueue('e');
+        q.enqueue('l');
+        q.enqueue('l');
+        q.enqueue('o');
+
+        String multiple_values_toString = q.toString();
+        int multiple_values_size_result = q.size();
+
+        assert multiple_values_toString.equals("[h, e, l, l, o]") : multiple_values_toString;
+        assert multiple_values_size_result == 5 : multiple_values_size_result;
+
+        char dequeue_result = q.dequeue();
+        assert dequeue_result == 'h' : dequeue_result;
+
+        while (!q.isEmpty())
+        {
+            q.dequeue();
+        }
+
+        assert q.size() == 0 : q.size();
+
+        // case test
+        // several producers and consumers share one queue. every value must
+        // be consumed exactly once and, since each producer enqueues in
+        // order, every consumer must see the values of one producer in
+        // increasing order.
+        final int producers = 4;
+        final int consumers = 4;
+        final int perProducer = 200_000;
+        final ConcurrentLinkedFifoQueue<Long> shared = new ConcurrentLinkedFifoQueue<Long>();
+        final AtomicIntegerArray seen = new AtomicIntegerArray(producers * perProducer);
+        final boolean[] ordered = { true };
+        final CountDownLatch start = new CountDownLatch(1);
+        final CountDownLatch producersDone = new CountDownLatch(producers);
+
+        Thread[] threads = new Thread[producers + consumers];
+        for (int p = 0; p < producers; p++)
+        {
+            final long id = p;
+            threads[p] = new Thread(() -> {
+                try
+                {
+                    start.await();
+                }
+                catch (InterruptedException e)
+                {
+                    return;
+                }
+
+                for (int i = 0; i < perProducer; i++)
+                {
+                    shared.enqueue((id << 32) | i);
+                }
+
+                producersDone.countDown();
+            });
+        }
+
+        for (int c = 0; c < consumers; c++)
+        {
+            threads[producers + c] = new Thread(() -> {
+                long[] lastSeen = new long[producers];
+                java.util.Arrays.fill(lastSeen, -1);
+
+                try
+                {
+                    start.await();
+                }
+                catch (InterruptedException e)
+                {
+                    return;
+                }
+
+                while (true)
+                {
+                    Long value = shared.poll();
+                    if (value == null)
+                    {
+                        if (producersDone.getCount() == 0 && shared.isEmpty())
+                        {
+                            return;
+                        }
+
+                        continue;
+                    }
+
+                    int producer = (int)(value >>> 32);
+                    int sequence = (int)(long)value;
+
+                    if (sequence <= lastSeen[producer])
+                    {
+                        ordered[0] = false;
+                    }
+
+                    lastSeen[producer] = sequence;
+
+                    seen.incrementAndGet(producer * perProducer + sequence);
+                }
+            });
+        }
+
+        long startTime = System.nanoTime();
+        for (Thread t : threads)
+        {
+            t.start();
+        }
+
+        start.countDown();
+        for (Thread t : threads)
+        {
+            t.join();
+        }
+
+        long elapsed = System.nanoTime() - startTime;
+
+        assert ordered[0] : "values of one producer were dequeued out of order";
+        for (int i = 0; i < seen.length(); i++)
+        {
+            assert seen.get(i) == 1 : "value " + i + " was dequeued " + seen.get(i) + " times";
+        }
+
+        assert shared.isEmpty();
+        assert shared.size() == 0 : shared.size();
+
+        System.out.println(producers + " producers, " + consumers + " consumers, " +
+                seen.length() + " values in " + elapsed / 1_000_000 + " ms");
+    }
+}
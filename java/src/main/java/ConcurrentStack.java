@@ -0,0 +1,325 @@
+/*
+    Author: Andreas Hammarstrand
+    Written: 2026/10/18
+    Purpose:
+        ConcurrentStack<T> is a lock-free stack (a Treiber stack) that can be
+        shared by any amount of threads. The stack is a singly linked list
+        and `push` and `pop` both come down to a CAS on the `top` reference.
+        Every push links a new node, and a node is never reused while a
+        thread may still hold a reference to it (the garbage collector
+        guarantees that), so a CAS can never succeed on a `top` that was
+        popped and pushed back in between; which is the ABA problem a
+        C implementation with reused nodes would have to defend against.
+    Usage:
+        Create an instance with `new ConcurrentStack<T>()`. Items are added
+        to the stack through `push(T item)` and removed through `pop()`.
+        Since another thread may empty the stack between `isEmpty()` and
+        `pop()`, use `T poll()` which returns null when the stack is empty.
+        `size()` is approximate while other threads are active and the
+        iterator is weakly consistent. To run tests, run static main
+        function of the class.
+ */
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+public class ConcurrentStack<T> implements Iterable<T>
+{
+    protected static class Node<T>
+    {
+        final T value;
+        Node<T> next;
+
+        Node(T value)
+        {
+            this.value = value;
+        }
+    }
+
+    // returned by `tryPop` when it lost the race for `top`
+    private static final Node<?> CONTENDED = new Node<Object>(null);
+
+    private final AtomicReference<Node<T>> top = new AtomicReference<Node<T>>();
+    private final LongAdder count = new LongAdder();
+
+    public ConcurrentStack()
+    {
+    }
+
+    // makes one attempt at pushing `node`, returns false if another thread
+    // changed `top` in the meantime.
+    protected boolean tryPush(Node<T> node)
+    {
+        Node<T> oldTop = top.get();
+        node.next = oldTop;
+
+        if (top.compareAndSet(oldTop, node))
+        {
+            count.increment();
+            return true;
+        }
+
+        return false;
+    }
+
+    // makes one attempt at popping, returns the popped node, null if the
+    // stack is empty or `contended()` if another thread changed `top` in the
+    // meantime.
+    protected Node<T> tryPop()
+    {
+        Node<T> oldTop = top.get();
+        if (oldTop == null)
+        {
+            return null;
+        }
+
+        if (top.compareAndSet(oldTop, oldTop.next))
+        {
+            count.decrement();
+            return oldTop;
+        }
+
+        return contended();
+    }
+
+    // the marker `tryPop` returns when it lost the race for `top`
+    protected static <T> Node<T> contended()
+    {
+        return (Node<T>)CONTENDED;
+    }
+
+    // called between two failed attempts, subclasses may back off here
+    protected void onContention()
+    {
+    }
+
+    // put the value on the top of the stack.
+    public void push(T item)
+    {
+        // null is what `poll` returns for an empty stack
+        if (item == null)
+        {
+            throw new IllegalArgumentException();
+        }
+
+        Node<T> node = new Node<T>(item);
+        while (!tryPush(node))
+        {
+            onContention();
+        }
+    }
+
+    // removes and returns the element on the top of the stack, or null if
+    // the stack is empty.
+    public T poll()
+    {
+        while (true)
+        {
+            Node<T> node = tryPop();
+            if (node == null)
+            {
+                return null;
+            }
+
+            if (node != CONTENDED)
+            {
+                return node.value;
+            }
+
+            onContention();
+        }
+    }
+
+    // removes and returns the element on the top of the stack.
+    public T pop()
+    {
+        // same contract as `Stack.pop`; popping an empty stack is an error.
+        T value = poll();
+        if (value == null)
+        {
+            throw new IndexOutOfBoundsException();
+        }
+
+        return value;
+    }
+
+    // returns the number of elements in the stack.
+    // the value is approximate when other threads are modifying the stack.
+    public int size()
+    {
+        long sum = count.sum();
+        return (int)Math.max(0, Math.min(Integer.MAX_VALUE, sum));
+    }
+
+    // returns true if stack is empty, otherwise false.
+    public boolean isEmpty()
+    {
+        return top.get() == null;
+    }
+
+    // returns a string representation of the object instance, from the
+    // bottom of the stack to the top like `Stack<T>`.
+    @Override
+    public String toString()
+    {
+        // the list is linked from the top, collect it before printing
+        Stack<T> reversed = new Stack<T>();
+        for (T value : this)
+        {
+            reversed.push(value);
+        }
+
+        StringBuilder sb = new StringBuilder();
+        sb.append('[');
+
+        boolean first = true;
+        for (T value : reversed)
+        {
+            if (!first)
+            {
+                sb.append(", ");
+            }
+
+            sb.append(value.toString());
+            first = false;
+        }
+
+        sb.append(']');
+        return sb.toString();
+    }
+
+    // returns a weakly consistent iterator that spans over the stack, from
+    // top to bottom. it shows the stack as it was when it was created,
+    // pops that happen later may or may not be seen.
+    public Iterator<T> iterator()
+    {
+        return new ConcurrentStackIterator(top.get());
+    }
+
+    private class ConcurrentStackIterator implements Iterator<T>
+    {
+        Node<T> current;
+
+        public ConcurrentStackIterator(Node<T> top)
+        {
+            current = top;
+        }
+
+        // returns a bool specifying if the iterator has following element.
+        public boolean hasNext()
+        {
+            return current != null;
+        }
+
+        // moves the iterator to the next value and returns it.
+        public T next()
+        {
+            if (current == null)
+            {
+                throw new NoSuchElementException();
+            }
+
+            T value = current.value;
+            current = current.next;
+            return value;
+        }
+
+        // warnings are given when `remove` is not overridden, throwing UnsupportedOperation exception instead.
+        public void remove()
+        {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    // test method
+    public static void main(String[] args) throws InterruptedException
+    {
+        ConcurrentStack<Character> s = new ConcurrentStack<Character>();
+
+        // single threaded, the stack behaves like `Stack<T>`
+        assert s.isEmpty();
+        assert s.size() == 0 : s.size();
+        assert s.poll() == null;
+
+        s.push('h');
+        s.push('e');
+        s.push('l');
+        s.push('l');
+        s.push('o');
+
+        String toString_result = s.toString();
+        int size_result = s.size();
+
+        assert toString_result.equals("[h, e, l, l, o]") : toString_result;
+        assert size_result == 5 : size_result;
+
+        StringBuilder iterated = new StringBuilder();
+        for (char c : s)
+        {
+            iterated.append(c);
+        }
+
+        assert iterated.toString().equals("olleh") : iterated;
+
+        char pop_result = s.pop();
+        assert pop_result == 'o' : pop_result;
+
+        while (!s.isEmpty())
+        {
+            s.pop();
+        }
+
+        // case test
+        // several threads push and pop at the same time, used as a shared
+        // free list. nothing may be lost or popped twice.
+        final ConcurrentStack<Integer> shared = new ConcurrentStack<Integer>();
+        final int threads = 8;
+        final int perThread = 100_000;
+        final AtomicIntegerArray popped = new AtomicIntegerArray(threads * perThread);
+
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++)
+        {
+            final int offset = t * perThread;
+            workers[t] = new Thread(() -> {
+                for (int i = 0; i < perThread; i++)
+                {
+                    shared.push(offset + i);
+
+                    // pop every other iteration so the stack both grows and shrinks
+                    if ((i & 1) == 1)
+                    {
+                        popped.incrementAndGet(shared.pop());
+                        popped.incrementAndGet(shared.pop());
+                    }
+                }
+            });
+        }
+
+        for (Thread t : workers)
+        {
+            t.start();
+        }
+
+        for (Thread t : workers)
+        {
+            t.join();
+        }
+
+        while (!shared.isEmpty())
+        {
+            popped.incrementAndGet(shared.pop());
+        }
+
+        for (int i = 0; i < popped.length(); i++)
+        {
+            assert popped.get(i) == 1 : "value " + i + " was popped " + popped.get(i) + " times";
+        }
+
+        assert shared.size() == 0 : shared.size();
+        System.out.println(s);
+    }
+}
@@ -0,0 +1,311 @@
+/*
+    Author: Andreas Hammarstrand
+    Written: 2026/10/18
+    Purpose:
+        DelimiterGrammar describes which bytes of an input are delimiters
+        and how GrammarValidator should treat them: pairs of brackets that
+        have to be balanced, quotes that start strings (with an optional
+        escape byte) in which nothing is checked, and line and block
+        comments that are skipped as well. Every byte is given a class in a
+        256 entry table, so the validator finds out what a byte means with a
+        single lookup instead of a chain of comparisons.
+        Delimiters are single bytes, except comment starts and block comment
+        ends which may be one or two bytes long. The first byte of a two
+        byte comment start may not be a bracket or a quote.
+    Usage:
+        Use one of the presets `strict()` (the rules of BalancedParentheses),
+        `json()` or `cLike()`, or create an instance with
+        `new DelimiterGrammar()` and describe the input with
+        `addPair(char open, char close)`, `addQuote(char quote, char escape)`,
+        `addLineComment(String start)`,
+        `addBlockComment(String start, String end)` and
+        `allowOtherBytes(boolean allow)`. Pass the grammar to
+        GrammarValidator, which takes a copy of it, so the grammar may be
+        changed afterwards without affecting the validator. To run tests,
+        run static main function of the class.
+ */
+
+import java.util.ArrayList;
+
+public class DelimiterGrammar
+{
+    // byte classes
+    static final byte OTHER = 0;
+    static final byte OPEN = 1;
+    static final byte CLOSE = 2;
+    static final byte QUOTE = 3;
+    static final byte COMMENT = 4;
+    static final byte COMMENT_PREFIX = 5;
+
+    // no escape byte
+    public static final char NO_ESCAPE = 0;
+
+    // a comment and how it ends
+    static class Comment
+    {
+        final byte[] start;
+
+        // null for a line comment, which ends at the end of the line
+        final byte[] end;
+
+        Comment(byte[] start, byte[] end)
+        {
+            this.start = start;
+            this.end = end;
+        }
+    }
+
+    // the class of every byte value
+    final byte[] classes = new byte[256];
+
+    // the closing bracket of an opening bracket, or the escape byte of a
+    // quote
+    final byte[] partners = new byte[256];
+
+    // comments with a one byte start, by that byte
+    final Comment[] shortComments = new Comment[256];
+
+    // comments with a two byte start
+    final ArrayList<Comment> longComments = new ArrayList<Comment>();
+
+    private boolean allowOtherBytes;
+
+    public DelimiterGrammar()
+    {
+    }
+
+    // returns the rules of BalancedParentheses: only the three kinds of
+    // brackets, and nothing else.
+    public static DelimiterGrammar strict()
+    {
+        DelimiterGrammar grammar = new DelimiterGrammar();
+        grammar.addPair('(', ')');
+        grammar.addPair('[', ']');
+        grammar.addPair('{', '}');
+        return grammar;
+    }
+
+    // returns a grammar for JSON: objects, arrays and strings.
+    public static DelimiterGrammar json()
+    {
+        DelimiterGrammar grammar = new DelimiterGrammar();
+        grammar.addPair('[', ']');
+        grammar.addPair('{', '}');
+        grammar.addQuote('"', '\\');
+        grammar.allowOtherBytes(true);
+        return grammar;
+    }
+
+    // returns a grammar for C-like source code, with string and character
+    // literals and both kinds of comments.
+    public static DelimiterGrammar cLike()
+    {
+        DelimiterGrammar grammar = strict();
+        grammar.addQuote('"', '\\');
+        grammar.addQuote('\'', '\\');
+        grammar.addLineComment("//");
+        grammar.addBlockComment("/*", "*/");
+        grammar.allowOtherBytes(true);
+        return grammar;
+    }
+
+    // returns the byte of a delimiter, which has to fit in a byte
+    private static byte toByte(char c)
+    {
+        if (c > 0xFF)
+        {
+            throw new IllegalArgumentException();
+        }
+
+        return (byte)c;
+    }
+
+    // returns the bytes of a comment delimiter, which has to be one or two
+    // bytes long
+    private static byte[] toBytes(String delimiter)
+    {
+        if (delimiter == null || delimiter.length() < 1 || delimiter.length() > 2)
+        {
+            throw new IllegalArgumentException();
+        }
+
+        byte[] bytes = new byte[delimiter.length()];
+        for (int i = 0; i < bytes.length; i++)
+        {
+            bytes[i] = toByte(delimiter.charAt(i));
+        }
+
+        return bytes;
+    }
+
+    // a byte can only be given one class
+    private void checkUnused(byte b)
+    {
+        if (classes[b & 0xFF] != OTHER)
+        {
+            throw new IllegalArgumentException();
+        }
+    }
+
+    // adds a pair of brackets, `open` has to be closed by `close`.
+    public void addPair(char open, char close)
+    {
+        byte openByte = toByte(open);
+        byte closeByte = toByte(close);
+
+        if (openByte == closeByte)
+        {
+            throw new IllegalArgumentException();
+        }
+
+        checkUnused(openByte);
+        checkUnused(closeByte);
+
+        classes[openByte & 0xFF] = OPEN;
+        classes[closeByte & 0xFF] = CLOSE;
+        partners[openByte & 0xFF] = closeByte;
+    }
+
+    // adds a quote, everything up to the next unescaped `quote` is skipped.
+    // `escape` makes the byte after it part of the string, `NO_ESCAPE`
+    // means there is no escape byte.
+    public void addQuote(char quote, char escape)
+    {
+        byte quoteByte = toByte(quote);
+        byte escapeByte = toByte(escape);
+
+        if (quoteByte == escapeByte)
+        {
+            throw new IllegalArgumentException();
+        }
+
+        checkUnused(quoteByte);
+
+        classes[quoteByte & 0xFF] = QUOTE;
+        partners[quoteByte & 0xFF] = escapeByte;
+    }
+
+    // adds a comment that lasts from `start` to the end of the line.
+    public void addLineComment(String start)
+    {
+        addComment(new Comment(toBytes(start), null));
+    }
+
+    // adds a comment that lasts from `start` up to and including `end`.
+    public void addBlockComment(String start, String end)
+    {
+        addComment(new Comment(toBytes(start), toBytes(end)));
+    }
+
+    private void addComment(Comment comment)
+    {
+        int first = comment.start[0] & 0xFF;
+
+        if (comment.start.length == 1)
+        {
+            checkUnused(comment.start[0]);
+
+            classes[first] = COMMENT;
+            shortComments[first] = comment;
+            return;
+        }
+
+        // several comments may start with the same byte, as "//" and "/*"
+        if (classes[first] != COMMENT_PREFIX)
+        {
+            checkUnused(comment.start[0]);
+        }
+
+        if (commentStartingWith(first, comment.start[1] & 0xFF) != null)
+        {
+            throw new IllegalArgumentException();
+        }
+
+        classes[first] = COMMENT_PREFIX;
+        longComments.add(comment);
+    }
+
+    // with `allow` set, bytes that are not delimiters are skipped,
+    // otherwise they make the input invalid.
+    public void allowOtherBytes(boolean allow)
+    {
+        allowOtherBytes = allow;
+    }
+
+    // returns true if bytes that are not delimiters are skipped.
+    public boolean allowsOtherBytes()
+    {
+        return allowOtherBytes;
+    }
+
+    // returns the comment starting with `first` followed by `second`, or
+    // null.
+    Comment commentStartingWith(int first, int second)
+    {
+        return commentStartingWith(longComments.toArray(new Comment[0]), first, second);
+    }
+
+    // returns the comment of `comments` starting with `first` followed by
+    // `second`, or null. also used on the copy a GrammarValidator keeps.
+    static Comment commentStartingWith(Comment[] comments, int first, int second)
+    {
+        for (Comment comment : comments)
+        {
+            if ((comment.start[0] & 0xFF) == first && (comment.start[1] & 0xFF) == second)
+            {
+                return comment;
+            }
+        }
+
+        return null;
+    }
+
+    // test method
+    public static void main(String[] args)
+    {
+        DelimiterGrammar grammar = cLike();
+
+        byte open_result = grammar.classes['('];
+        byte quote_result = grammar.classes['"'];
+        byte prefix_result = grammar.classes['/'];
+        byte other_result = grammar.classes['a'];
+
+        assert open_result == OPEN : open_result;
+        assert quote_result == QUOTE : quote_result;
+        assert prefix_result == COMMENT_PREFIX : prefix_result;
+        assert other_result == OTHER : other_result;
+        assert grammar.partners['('] == ')';
+        assert grammar.commentStartingWith('/', '*') != null;
+        assert grammar.commentStartingWith('/', '/').end == null;
+        assert grammar.commentStartingWith('/', 'x') == null;
+
+        // a byte can only have one meaning
+        boolean threw = false;
+        try
+        {
+            grammar.addPair('<', '(');
+        }
+        catch (IllegalArgumentException e)
+        {
+            threw = true;
+        }
+
+        assert threw;
+        assert grammar.classes['<'] == OTHER;
+
+        // a bracket cannot start a two byte comment
+        threw = false;
+        try
+        {
+            grammar.addBlockComment("{#", "#}");
+        }
+        catch (IllegalArgumentException e)
+        {
+            threw = true;
+        }
+
+        assert threw;
+
+        System.out.println(grammar.allowsOtherBytes());
+    }
+}
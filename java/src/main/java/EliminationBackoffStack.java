@@ -0,0 +1,276 @@
+/*
+    Author: Andreas Hammarstrand
+    Written: 2026/10/18
+    Purpose:
+        EliminationBackoffStack<T> is a ConcurrentStack<T> that holds up
+        under heavy contention. When a push or pop loses the CAS on `top`,
+        instead of retrying right away the thread backs off into an
+        elimination array, where it waits a short while for a thread doing
+        the opposite operation. A push and a pop that meet there exchange the
+        value directly and both return, without touching `top` at all, which
+        is still linearizable since a push immediately followed by a pop
+        leaves the stack unchanged.
+        The amount of slots in use adapts to contention: it grows when
+        threads meet and shrinks when they time out waiting.
+    Usage:
+        Create an instance with `new EliminationBackoffStack<T>()`, or with
+        `new EliminationBackoffStack<T>(int slots)` to set the maximum size
+        of the elimination array. Use it like `ConcurrentStack<T>`. To run
+        tests, run static main function of the class.
+ */
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicStampedReference;
+
+public class EliminationBackoffStack<T> extends ConcurrentStack<T>
+{
+    // offered by a popping thread in the exchange
+    private static final Object POP = new Object();
+
+    // returned by `exchange` when nobody showed up in time
+    private static final Object TIMEOUT = new Object();
+
+    // how long a thread waits in a slot for a partner
+    private static final long TIMEOUT_NANOS = 2_000;
+
+    // the states of a slot, kept in the stamp of its reference
+    private static final int EMPTY = 0;
+    private static final int WAITING = 1;
+    private static final int BUSY = 2;
+
+    private final AtomicStampedReference<Object>[] slots;
+
+    // the amount of slots currently in use, from 1 up to `slots.length`.
+    // it is adjusted without synchronization since it is only a hint.
+    private volatile int range = 1;
+
+    public EliminationBackoffStack()
+    {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public EliminationBackoffStack(int slotCount)
+    {
+        if (slotCount < 1)
+        {
+            throw new IllegalArgumentException();
+        }
+
+        // an array of a generic type can not be created, so it is created
+        // raw and used as an array of AtomicStampedReference<Object>
+        @SuppressWarnings({"rawtypes", "unchecked"})
+        AtomicStampedReference<Object>[] created = new AtomicStampedReference[slotCount];
+        slots = created;
+        for (int i = 0; i < slotCount; i++)
+        {
+            slots[i] = new AtomicStampedReference<Object>(null, EMPTY);
+        }
+    }
+
+    // offers `mine` in `slot` and waits for a partner, returns what the
+    // partner offered or `TIMEOUT`.
+    private static Object exchange(AtomicStampedReference<Object> slot, Object mine)
+    {
+        long deadline = System.nanoTime() + TIMEOUT_NANOS;
+        int[] stamp = new int[1];
+
+        while (System.nanoTime() < deadline)
+        {
+            Object theirs = slot.get(stamp);
+
+            switch (stamp[0])
+            {
+                case EMPTY:
+                    // nobody is waiting, wait here for a partner
+                    if (slot.compareAndSet(theirs, mine, EMPTY, WAITING))
+                    {
+                        while (System.nanoTime() < deadline)
+                        {
+                            theirs = slot.get(stamp);
+                            if (stamp[0] == BUSY)
+                            {
+                                slot.set(null, EMPTY);
+                                return theirs;
+                            }
+                        }
+
+                        // give up, unless a partner arrived at the last moment
+                        if (slot.compareAndSet(mine, null, WAITING, EMPTY))
+                        {
+                            return TIMEOUT;
+                        }
+
+                        theirs = slot.get(stamp);
+                        slot.set(null, EMPTY);
+                        return theirs;
+                    }
+                    break;
+
+                case WAITING:
+                    // someone is waiting, try to become their partner
+                    if (slot.compareAndSet(theirs, mine, WAITING, BUSY))
+                    {
+                        return theirs;
+                    }
+                    break;
+
+                case BUSY:
+                    // two other threads are finishing an exchange
+                    break;
+            }
+        }
+
+        return TIMEOUT;
+    }
+
+    // offers `mine` in a random slot within the current range and adapts
+    // the range to the outcome.
+    private Object eliminate(Object mine)
+    {
+        int currentRange = range;
+        AtomicStampedReference<Object> slot =
+                slots[ThreadLocalRandom.current().nextInt(currentRange)];
+
+        Object theirs = exchange(slot, mine);
+
+        if (theirs == TIMEOUT)
+        {
+            // few threads around, fewer slots make meeting more likely
+            if (currentRange > 1)
+            {
+                range = currentRange - 1;
+            }
+        }
+        else if (currentRange < slots.length)
+        {
+            // threads are meeting, spread them out over more slots
+            range = currentRange + 1;
+        }
+
+        return theirs;
+    }
+
+    // put the value on the top of the stack.
+    @Override
+    public void push(T item)
+    {
+        if (item == null)
+        {
+            throw new IllegalArgumentException();
+        }
+
+        Node<T> node = new Node<T>(item);
+        while (!tryPush(node))
+        {
+            // met a popping thread, it took the value
+            if (eliminate(item) == POP)
+            {
+                return;
+            }
+        }
+    }
+
+    // removes and returns the element on the top of the stack, or null if
+    // the stack is empty.
+    @Override
+    public T poll()
+    {
+        while (true)
+        {
+            Node<T> node = tryPop();
+            if (node == null)
+            {
+                return null;
+            }
+
+            if (node != contended())
+            {
+                return node.value;
+            }
+
+            // met a pushing thread, take its value. meeting another pop
+            // or timing out means trying `top` again.
+            Object theirs = eliminate(POP);
+            if (theirs != POP && theirs != TIMEOUT)
+            {
+                return (T)theirs;
+            }
+        }
+    }
+
+    // test method
+    public static void main(String[] args) throws InterruptedException
+    {
+        EliminationBackoffStack<Character> s = new EliminationBackoffStack<Character>(4);
+
+        // without contention the stack behaves like `ConcurrentStack<T>`
+        assert s.isEmpty();
+        assert s.poll() == null;
+
+        s.push('h');
+        s.push('e');
+        s.push('l');
+        s.push('l');
+        s.push('o');
+
+        String toString_result = s.toString();
+        assert toString_result.equals("[h, e, l, l, o]") : toString_result;
+
+        char pop_result = s.pop();
+        assert pop_result == 'o' : pop_result;
+
+        while (!s.isEmpty())
+        {
+            s.pop();
+        }
+
+        // case test
+        // many threads push and pop the same stack, a lot of the pairs end
+        // up eliminated. nothing may be lost or popped twice.
+        final EliminationBackoffStack<Integer> shared = new EliminationBackoffStack<Integer>();
+        final int threads = 8;
+        final int perThread = 100_000;
+        final AtomicIntegerArray popped = new AtomicIntegerArray(threads * perThread);
+
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++)
+        {
+            final int offset = t * perThread;
+            workers[t] = new Thread(() -> {
+                for (int i = 0; i < perThread; i++)
+                {
+                    shared.push(offset + i);
+
+                    if ((i & 1) == 1)
+                    {
+                        popped.incrementAndGet(shared.pop());
+                        popped.incrementAndGet(shared.pop());
+                    }
+                }
+            });
+        }
+
+        for (Thread t : workers)
+        {
+            t.start();
+        }
+
+        for (Thread t : workers)
+        {
+            t.join();
+        }
+
+        while (!shared.isEmpty())
+        {
+            popped.incrementAndGet(shared.pop());
+        }
+
+        for (int i = 0; i < popped.length(); i++)
+        {
+            assert popped.get(i) == 1 : "value " + i + " was popped " + popped.get(i) + " times";
+        }
+
+        System.out.println(s);
+    }
+}
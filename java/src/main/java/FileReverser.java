@@ -0,0 +1,374 @@
+/*
+    Author: Andreas Hammarstrand
+    Written: 2026/10/18
+    Purpose:
+        FileReverser reverses files that are far larger than the heap. The
+        input is mapped with `FileChannel.map` one window at a time, starting
+        from the end of the file, and the output is written front to back
+        through one fixed buffer, so memory use is bounded by the window and
+        buffer sizes no matter how large the file is. Every window is loaded
+        into memory before it is scanned backwards, which turns the scan
+        into one sequential read per window instead of a page fault per page.
+        There are two modes: `BYTES` reverses every byte of the file, eight
+        bytes at a time, and `LINES` writes the lines of the file in reverse
+        order, each line unchanged, as the `tac` command does. A line that
+        crosses a window boundary is copied with positional reads of the
+        part that is no longer mapped.
+    Usage:
+        Create an instance with `new FileReverser()` and call
+        `reverse(Path input, WritableByteChannel output, Mode mode)`, or
+        `reverse(Path input, Path output, Mode mode)` to write a file. In
+        `LINES` mode every line written ends with '\n', also the one that
+        was last in the input without it. RecursiveAndIterativeReverse runs
+        it with `--file=bytes` or `--file=lines`. To run tests, run static
+        main function of the class.
+ */
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Random;
+
+public class FileReverser
+{
+    public enum Mode
+    {
+        BYTES,
+        LINES
+    }
+
+    private static final long DEFAULT_WINDOW_SIZE = 64L * 1024 * 1024;
+    private static final int DEFAULT_BUFFER_SIZE = 1024 * 1024;
+
+    private final long windowSize;
+
+    // the output is collected here and written when it is full
+    private final ByteBuffer buffer;
+    private WritableByteChannel output;
+
+    public FileReverser()
+    {
+        this(DEFAULT_WINDOW_SIZE, DEFAULT_BUFFER_SIZE);
+    }
+
+    public FileReverser(long windowSize, int bufferSize)
+    {
+        if (windowSize < 1 || windowSize > Integer.MAX_VALUE || bufferSize < 8)
+        {
+            throw new IllegalArgumentException();
+        }
+
+        this.windowSize = windowSize;
+        buffer = ByteBuffer.allocateDirect(bufferSize);
+    }
+
+    // writes out everything in the buffer
+    private void flush() throws IOException
+    {
+        buffer.flip();
+        while (buffer.hasRemaining())
+        {
+            output.write(buffer);
+        }
+
+        buffer.clear();
+    }
+
+    // writes the remaining bytes of `source` to the output
+    private void put(ByteBuffer source) throws IOException
+    {
+        while (source.hasRemaining())
+        {
+            if (!buffer.hasRemaining())
+            {
+                flush();
+            }
+
+            int n = Math.min(source.remaining(), buffer.remaining());
+            int limit = source.limit();
+            source.limit(source.position() + n);
+            buffer.put(source);
+            source.limit(limit);
+        }
+    }
+
+    // writes the bytes `[from..to)` of `channel` to the output
+    private void put(FileChannel channel, long from, long to) throws IOException
+    {
+        while (from < to)
+        {
+            if (!buffer.hasRemaining())
+            {
+                flush();
+            }
+
+            int n = (int)Math.min(to - from, buffer.remaining());
+            int limit = buffer.limit();
+            buffer.limit(buffer.position() + n);
+
+            while (buffer.hasRemaining())
+            {
+                int read = channel.read(buffer, from);
+                if (read < 0)
+                {
+                    throw new IOException("file shrank while reversing");
+                }
+
+                from += read;
+            }
+
+            buffer.limit(limit);
+        }
+    }
+
+    private void putByte(byte b) throws IOException
+    {
+        if (!buffer.hasRemaining())
+        {
+            flush();
+        }
+
+        buffer.put(b);
+    }
+
+    // writes the reversed file at `input` to `output`, which is not closed.
+    public void reverse(Path input, WritableByteChannel output, Mode mode) throws IOException
+    {
+        this.output = output;
+        buffer.clear();
+
+        try (FileChannel channel = FileChannel.open(input, StandardOpenOption.READ))
+        {
+            if (mode == Mode.BYTES)
+            {
+                reverseBytes(channel);
+            }
+            else
+            {
+                reverseLines(channel);
+            }
+        }
+
+        flush();
+        this.output = null;
+    }
+
+    // writes the reversed file at `input` to a new file at `output`.
+    public void reverse(Path input, Path output, Mode mode) throws IOException
+    {
+        try (FileChannel out = FileChannel.open(output, StandardOpenOption.WRITE,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING))
+        {
+            reverse(input, out, mode);
+        }
+    }
+
+    // maps `[start..end)` of `channel` and loads it into memory
+    private MappedByteBuffer map(FileChannel channel, long start, long end) throws IOException
+    {
+        MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+        window.load();
+        return window;
+    }
+
+    private void reverseBytes(FileChannel channel) throws IOException
+    {
+        for (long end = channel.size(); end > 0; )
+        {
+            long start = Math.max(0, end - windowSize);
+            MappedByteBuffer window = map(channel, start, end);
+
+            // whole words from the top of the window, turned around
+            int i = window.limit();
+            for (; i >= 8; i -= 8)
+            {
+                if (buffer.remaining() < 8)
+                {
+                    flush();
+                }
+
+                buffer.putLong(Long.reverseBytes(window.getLong(i - 8)));
+            }
+
+            for (; i > 0; i--)
+            {
+                putByte(window.get(i - 1));
+            }
+
+            end = start;
+        }
+    }
+
+    private void reverseLines(FileChannel channel) throws IOException
+    {
+        long size = channel.size();
+        if (size == 0)
+        {
+            return;
+        }
+
+        // the end of the line being looked for, not counting its '\n'
+        long lineEnd = size;
+
+        for (long end = size; end > 0; )
+        {
+            long start = Math.max(0, end - windowSize);
+            MappedByteBuffer window = map(channel, start, end);
+
+            for (int i = window.limit() - 1; i >= 0; i--)
+            {
+                if (window.get(i) != '\n')
+                {
+                    continue;
+                }
+
+                long newline = start + i;
+
+                // the '\n' at the very end of the file ends the last line,
+                // it does not start an empty one
+                if (newline != size - 1)
+                {
+                    putLine(channel, window, start, end, newline + 1, lineEnd);
+                }
+
+                lineEnd = newline;
+            }
+
+            // the first line of the file has no '\n' before it
+            if (start == 0)
+            {
+                putLine(channel, window, start, end, 0, lineEnd);
+            }
+
+            end = start;
+        }
+    }
+
+    // writes the line `[from..to)` and a '\n'. the part of the line within
+    // the window `[windowStart..windowEnd)` is copied from it, the rest is
+    // read from `channel`.
+    private void putLine(FileChannel channel, MappedByteBuffer window, long windowStart, long windowEnd,
+            long from, long to) throws IOException
+    {
+        long mappedEnd = Math.min(to, windowEnd);
+        if (from < mappedEnd)
+        {
+            ByteBuffer part = window.duplicate();
+            part.limit((int)(mappedEnd - windowStart)).position((int)(from - windowStart));
+            put(part);
+        }
+
+        put(channel, Math.max(from, windowEnd), to);
+        putByte((byte)'\n');
+    }
+
+    // returns `input` with its bytes reversed
+    private static byte[] reversedBytes(byte[] input)
+    {
+        byte[] result = new byte[input.length];
+        for (int i = 0; i < input.length; i++)
+        {
+            result[i] = input[input.length - 1 - i];
+        }
+
+        return result;
+    }
+
+    // returns the lines of `input` in reverse order, each ending with '\n'
+    private static byte[] reversedLines(byte[] input)
+    {
+        String text = new String(input, StandardCharsets.ISO_8859_1);
+        if (text.isEmpty())
+        {
+            return new byte[0];
+        }
+
+        if (text.endsWith("\n"))
+        {
+            text = text.substring(0, text.length() - 1);
+        }
+
+        String[] lines = text.split("\n", -1);
+        StringBuilder sb = new StringBuilder();
+        for (int i = lines.length - 1; i >= 0; i--)
+        {
+            sb.append(lines[i]).append('\n');
+        }
+
+        return sb.toString().getBytes(StandardCharsets.ISO_8859_1);
+    }
+
+    // test method
+    public static void main(String[] args) throws IOException
+    {
+        Path input = Files.createTempFile("reverse", ".in");
+        Path output = Files.createTempFile("reverse", ".out");
+
+        try
+        {
+            // tiny windows and buffers, so that words, lines and the buffer
+            // all cross window boundaries
+            FileReverser small = new FileReverser(7, 8);
+            Random random = new Random(11);
+
+            String[] fixed = { "", "\n", "a", "a\n", "a\n\n", "\n\na", "one\ntwo\nthree\n", "one\ntwo\nthree" };
+            for (int n = 0; n < fixed.length + 500; n++)
+            {
+                byte[] bytes;
+                if (n < fixed.length)
+                {
+                    bytes = fixed[n].getBytes(StandardCharsets.ISO_8859_1);
+                }
+                else
+                {
+                    // random bytes, with a newline now and then
+                    bytes = new byte[random.nextInt(100)];
+                    for (int i = 0; i < bytes.length; i++)
+                    {
+                        bytes[i] = random.nextInt(6) == 0 ? (byte)'\n' : (byte)random.nextInt(256);
+                    }
+                }
+
+                Files.write(input, bytes);
+
+                small.reverse(input, output, Mode.BYTES);
+                byte[] bytes_result = Files.readAllBytes(output);
+                assert Arrays.equals(bytes_result, reversedBytes(bytes)) : n;
+
+                small.reverse(input, output, Mode.LINES);
+                byte[] lines_result = Files.readAllBytes(output);
+                assert Arrays.equals(lines_result, reversedLines(bytes)) : n;
+            }
+
+            // case test
+            // a larger file with the default windows, reversed twice by
+            // bytes gives the file back.
+            byte[] large = new byte[64 * 1024 * 1024 + 5];
+            random.nextBytes(large);
+            Files.write(input, large);
+
+            FileReverser reverser = new FileReverser();
+            long start = System.nanoTime();
+            reverser.reverse(input, output, Mode.BYTES);
+            long elapsed = System.nanoTime() - start;
+
+            reverser.reverse(output, input, Mode.BYTES);
+            assert Arrays.equals(Files.readAllBytes(input), large);
+
+            System.out.println(String.format("%d bytes reversed at %.0f MB/s", large.length,
+                    large.length * 1e3 / elapsed));
+        }
+        finally
+        {
+            Files.delete(input);
+            Files.delete(output);
+        }
+    }
+}
@@ -1,7 +1,7 @@
 /*
     Author: Andreas Hammarstrand
     Written: 2020/09/01
-    Updated: 2020/09/06
+    Updated: 2026/10/18
     Purpose:
         GeneralizedQueue<T> extends the functionality of
         CircularDoubleLinkedQueue<T> by allowing the user
@@ -9,9 +9,15 @@
     Usage:
         See CircularDoubleLinkedQueue<T> for base functionality.
         `removeAt(int index)` allows the user to remove a value at the
-        specified index. To run tests, run static main function of the class.
+        specified index. `removeAll(int... indices)` removes several indices,
+        as they were before the call, and `removeIf(Predicate<? super T>)`
+        removes every matching value; both in a single pass over the queue.
+        To run tests, run static main function of the class.
  */
 
+import java.util.Arrays;
+import java.util.function.Predicate;
+
 public class GeneralizedQueue<T> extends CircularDoubleLinkedQueue<T>
 {
     public GeneralizedQueue()
@@ -19,6 +25,12 @@ public class GeneralizedQueue<T> extends CircularDoubleLinkedQueue<T>
         super();
     }
 
+    // creates a queue that keeps up to `poolCapacity` removed nodes for reuse.
+    public GeneralizedQueue(int poolCapacity)
+    {
+        super(poolCapacity);
+    }
+
     // goes from the back to front to remove the element
     private T removeFromBack(int index)
     {
@@ -49,6 +61,7 @@ public class GeneralizedQueue<T> extends CircularDoubleLinkedQueue<T>
             setLast(back);
         }
 
+        recycle(current);
         return value;
     }
 
@@ -67,7 +80,7 @@ public class GeneralizedQueue<T> extends CircularDoubleLinkedQueue<T>
             index--;
         }
 
-        T value = current.next.value;
+        T value = current.value;
 
         // update links to remove element at `index` from circulation and reconnect the circle
         Node back = current.previous;
@@ -76,6 +89,7 @@ public class GeneralizedQueue<T> extends CircularDoubleLinkedQueue<T>
         back.next = front;
         front.previous = back;
 
+        recycle(current);
         return value;
     }
 
@@ -108,6 +122,116 @@ public class GeneralizedQueue<T> extends CircularDoubleLinkedQueue<T>
         return result;
     }
 
+    // unlinks `node` from the circle, updating `first`, `last` and the size.
+    private void unlink(Node node)
+    {
+        if (super.size() == 1)
+        {
+            setFirst(null);
+            setLast(null);
+        }
+        else
+        {
+            node.previous.next = node.next;
+            node.next.previous = node.previous;
+
+            if (node == first())
+            {
+                setFirst(node.next);
+            }
+
+            if (node == last())
+            {
+                setLast(node.previous);
+            }
+        }
+
+        super.setSize(super.size() - 1);
+        recycle(node);
+    }
+
+    // indices are 1-based and refer to the queue as it was before the call
+    // removes the values at all the specified indices and returns how many
+    // were removed. repeated indices are only removed once.
+    public int removeAll(int... indices)
+    {
+        // check every index before anything is removed, so a bad index
+        // leaves the queue untouched.
+        boolean sorted = true;
+        for (int i = 0; i < indices.length; i++)
+        {
+            if (indices[i] < 1 || indices[i] > super.size())
+            {
+                throw new IndexOutOfBoundsException();
+            }
+
+            if (i > 0 && indices[i] < indices[i - 1])
+            {
+                sorted = false;
+            }
+        }
+
+        // the sweep goes front to back, so it needs the indices in order
+        if (!sorted)
+        {
+            indices = indices.clone();
+            Arrays.sort(indices);
+        }
+
+        int removed = 0;
+        int position = 1;
+        Node current = first();
+
+        for (int i = 0; i < indices.length; i++)
+        {
+            if (i > 0 && indices[i] == indices[i - 1])
+            {
+                continue;
+            }
+
+            // walk forward to the index, nodes before it are kept
+            while (position < indices[i])
+            {
+                current = current.next;
+                position++;
+            }
+
+            Node next = current.next;
+            unlink(current);
+            removed++;
+
+            current = next;
+            position++;
+        }
+
+        return removed;
+    }
+
+    // removes every value that `filter` accepts and returns how many were
+    // removed.
+    public int removeIf(Predicate<? super T> filter)
+    {
+        int removed = 0;
+        int remaining = super.size();
+        Node current = first();
+
+        // the circle has no end to stop at, so the nodes are counted instead
+        while (remaining > 0)
+        {
+            Node next = current.next;
+            if (filter.test(current.value))
+            {
+                unlink(current);
+                removed++;
+            }
+
+            current = next;
+            remaining--;
+        }
+
+        return removed;
+    }
+
     // test method
     // because `GeneralizedQueue` extends `CircularDoubleLinkedQueue` we only need to test the added methods
     public static void main(String[] args)
@@ -156,6 +280,62 @@ public class GeneralizedQueue<T> extends CircularDoubleLinkedQueue<T>
             q.dequeue();
         }
 
+
+        // testing removal from the front half, which traverses front to back
+        q.enqueue('a');
+        q.enqueue('b');
+        q.enqueue('c');
+        q.enqueue('d');
+        q.enqueue('e');
+        q.enqueue('f');
+
+        char removeAt_front_result = q.removeAt(2);
+
+        assert removeAt_front_result == 'b' : removeAt_front_result;
+        assert q.toString().equals("[a, c, d, e, f]") : q;
+
+        // reset q; the queue
+        while (!q.isEmpty())
+        {
+            q.dequeue();
+        }
+
+
+        // with recycling turned on, removed nodes end up in the pool
+        GeneralizedQueue<Character> pooled = new GeneralizedQueue<Character>(4);
+        pooled.enqueue('a');
+        pooled.enqueue('b');
+        pooled.enqueue('c');
+
+        char pooled_removeAt_result = pooled.removeAt(2);
+        int pooled_pool_size_result = pooled.poolSize();
+
+        assert pooled_removeAt_result == 'b' : pooled_removeAt_result;
+        assert pooled_pool_size_result == 1 : pooled_pool_size_result;
+
+        // testing removal of several indices at once, in any order and
+        // with repeats, the indices refer to the queue before the call
+        for (char c : "abcdefgh".toCharArray())
+        {
+            q.enqueue(c);
+        }
+
+        int removeAll_result = q.removeAll(8, 1, 4, 4, 5);
+        String removeAll_toString = q.toString();
+
+        assert removeAll_result == 4 : removeAll_result;
+        assert removeAll_toString.equals("[b, c, f, g]") : removeAll_toString;
+
+        // testing removal by predicate, including `first` and `last`
+        int removeIf_result = q.removeIf(c -> c != 'c');
+        String removeIf_toString = q.toString();
+
+        assert removeIf_result == 3 : removeIf_result;
+        assert removeIf_toString.equals("[c]") : removeIf_toString;
+
+        q.removeIf(c -> true);
+        assert q.isEmpty();
+
         // case test
         // here the test focuses on regular usage of the type,
         // rather than surface level method testing like above
@@ -0,0 +1,451 @@
+/*
+    Author: Andreas Hammarstrand
+    Written: 2026/10/18
+    Purpose:
+        GrammarValidator checks that the brackets of an input are balanced
+        according to a DelimiterGrammar, which makes it usable on real
+        payloads such as JSON or source code, where brackets inside strings
+        and comments do not count and text between brackets is allowed.
+        Instead of a switch per kind of bracket, every byte is looked up in
+        the 256 entry class table of the grammar, and the validator moves
+        between four states: code, string, line comment and block comment.
+        As ParenthesesValidator, it reads the input as bytes, in pieces, and
+        only keeps the stack of expected closing brackets.
+    Usage:
+        For a one-off check use one of the static `validate` methods with a
+        grammar and a `String`, a `ByteBuffer` or a `Path`. To validate input
+        that arrives in pieces, create an instance with
+        `new GrammarValidator(DelimiterGrammar grammar)`, pass every piece
+        to `boolean feed(ByteBuffer)` and finish with
+        `boolean isBalanced()`; `reset()` makes the instance ready for the
+        next input and `errorPosition()` tells where the input went wrong.
+        An input that ends inside a string or a block comment is not
+        balanced. To run tests, run static main function of the class.
+ */
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+
+public class GrammarValidator
+{
+    // the largest window of a file that is mapped at once
+    private static final long MAP_WINDOW_SIZE = 64L * 1024 * 1024;
+
+    // the class of a byte that is not allowed
+    private static final byte INVALID = -1;
+
+    // states
+    private static final int CODE = 0;
+    private static final int STRING = 1;
+    private static final int LINE_COMMENT = 2;
+    private static final int BLOCK_COMMENT = 3;
+
+    // copies of the tables of the grammar
+    private final byte[] classes;
+    private final byte[] partners;
+    private final DelimiterGrammar.Comment[] shortComments;
+    private final DelimiterGrammar.Comment[] longComments;
+    private final boolean allowOtherBytes;
+
+    // the closing brackets expected, the innermost on top
+    private final CharStack expected = new CharStack();
+
+    private int state = CODE;
+
+    // the quote and escape byte of the current string, the escape is -1 if
+    // the string has none
+    private int quote;
+    private int escape;
+    private boolean escaped;
+
+    // the current block comment, and the byte before the current one
+    private DelimiterGrammar.Comment comment;
+    private int previous;
+
+    // the last byte, if it might be the first of a two byte comment start,
+    // otherwise -1
+    private int pending = -1;
+
+    // the amount of bytes fed so far
+    private long position;
+
+    // the position of the first byte that made the input unbalanced, or -1
+    private long errorPosition = -1;
+
+    public GrammarValidator(DelimiterGrammar grammar)
+    {
+        allowOtherBytes = grammar.allowsOtherBytes();
+
+        classes = grammar.classes.clone();
+        if (!allowOtherBytes)
+        {
+            // bytes without a meaning are rejected by the table itself
+            for (int b = 0; b < 256; b++)
+            {
+                if (classes[b] == DelimiterGrammar.OTHER)
+                {
+                    classes[b] = INVALID;
+                }
+            }
+        }
+
+        partners = grammar.partners.clone();
+        shortComments = grammar.shortComments.clone();
+        longComments = grammar.longComments.toArray(new DelimiterGrammar.Comment[0]);
+    }
+
+    // makes the instance ready for a new input.
+    public void reset()
+    {
+        while (!expected.isEmpty())
+        {
+            expected.pop();
+        }
+
+        state = CODE;
+        escaped = false;
+        comment = null;
+        pending = -1;
+        position = 0;
+        errorPosition = -1;
+    }
+
+    private void startComment(DelimiterGrammar.Comment c)
+    {
+        if (c.end == null)
+        {
+            state = LINE_COMMENT;
+        }
+        else
+        {
+            state = BLOCK_COMMENT;
+            comment = c;
+            previous = -1;
+        }
+    }
+
+    // checks the remaining bytes of `buffer` and consumes them. returns
+    // false as soon as the input can no longer be balanced, later calls
+    // then return false without reading anything.
+    public boolean feed(ByteBuffer buffer)
+    {
+        if (errorPosition >= 0)
+        {
+            return false;
+        }
+
+        int start = buffer.position();
+        int end = buffer.limit();
+
+        for (int i = start; i < end; i++)
+        {
+            int b = buffer.get(i) & 0xFF;
+
+            switch (state)
+            {
+                case CODE:
+                    if (pending >= 0)
+                    {
+                        DelimiterGrammar.Comment c = DelimiterGrammar.commentStartingWith(longComments, pending, b);
+                        pending = -1;
+
+                        if (c != null)
+                        {
+                            startComment(c);
+                            break;
+                        }
+
+                        // the byte before did not start a comment after all,
+                        // so it is an ordinary byte
+                        if (!allowOtherBytes)
+                        {
+                            return fail(buffer, i, i - 1);
+                        }
+                    }
+
+                    switch (classes[b])
+                    {
+                        case DelimiterGrammar.OTHER:
+                            break;
+
+                        case DelimiterGrammar.OPEN:
+                            expected.push((char)(partners[b] & 0xFF));
+                            break;
+
+                        case DelimiterGrammar.CLOSE:
+                            if (expected.isEmpty() || expected.peek() != b)
+                            {
+                                return fail(buffer, i, i);
+                            }
+
+                            expected.pop();
+                            break;
+
+                        case DelimiterGrammar.QUOTE:
+                            state = STRING;
+                            quote = b;
+                            escape = partners[b] == DelimiterGrammar.NO_ESCAPE ? -1 : partners[b] & 0xFF;
+                            break;
+
+                        case DelimiterGrammar.COMMENT:
+                            startComment(shortComments[b]);
+                            break;
+
+                        case DelimiterGrammar.COMMENT_PREFIX:
+                            pending = b;
+                            break;
+
+                        default:
+                            return fail(buffer, i, i);
+                    }
+
+                    break;
+
+                case STRING:
+                    if (escaped)
+                    {
+                        escaped = false;
+                    }
+                    else if (b == escape)
+                    {
+                        escaped = true;
+                    }
+                    else if (b == quote)
+                    {
+                        state = CODE;
+                    }
+
+                    break;
+
+                case LINE_COMMENT:
+                    if (b == '\n')
+                    {
+                        state = CODE;
+                    }
+
+                    break;
+
+                case BLOCK_COMMENT:
+                    byte[] commentEnd = comment.end;
+                    if (commentEnd.length == 1
+                            ? b == (commentEnd[0] & 0xFF)
+                            : previous == (commentEnd[0] & 0xFF) && b == (commentEnd[1] & 0xFF))
+                    {
+                        state = CODE;
+                        comment = null;
+                    }
+                    else
+                    {
+                        previous = b;
+                    }
+
+                    break;
+            }
+        }
+
+        buffer.position(end);
+        position += end - start;
+        return true;
+    }
+
+    // records the error at the byte `at` in `buffer`, which may be the last
+    // byte of an earlier buffer, and consumes `buffer` up to `index`.
+    private boolean fail(ByteBuffer buffer, int index, int at)
+    {
+        errorPosition = position + at - buffer.position();
+        position += index + 1 - buffer.position();
+        buffer.position(index + 1);
+        return false;
+    }
+
+    // returns true if everything fed so far is balanced, otherwise false.
+    public boolean isBalanced()
+    {
+        // a byte that might have started a comment is an ordinary byte when
+        // the input ends after it
+        return errorPosition < 0 && expected.isEmpty() &&
+                (state == CODE || state == LINE_COMMENT) &&
+                (pending < 0 || allowOtherBytes);
+    }
+
+    // returns the position of the byte that made the input unbalanced, the
+    // input length if brackets, a string or a comment were left open, or -1
+    // if it is balanced.
+    public long errorPosition()
+    {
+        if (errorPosition >= 0)
+        {
+            return errorPosition;
+        }
+
+        if (pending >= 0 && !allowOtherBytes)
+        {
+            return position - 1;
+        }
+
+        return isBalanced() ? -1 : position;
+    }
+
+    // returns the amount of brackets currently open.
+    public int depth()
+    {
+        return expected.size();
+    }
+
+    // returns true if `input` is balanced according to `grammar`.
+    public static boolean validate(DelimiterGrammar grammar, String input)
+    {
+        return validate(grammar, ByteBuffer.wrap(input.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    // returns true if the remaining bytes of `buffer` are balanced according
+    // to `grammar`.
+    public static boolean validate(DelimiterGrammar grammar, ByteBuffer buffer)
+    {
+        GrammarValidator validator = new GrammarValidator(grammar);
+        return validator.feed(buffer) && validator.isBalanced();
+    }
+
+    // returns true if the file at `path` is balanced according to `grammar`.
+    // the file is mapped into memory one window at a time.
+    public static boolean validate(DelimiterGrammar grammar, Path path) throws IOException
+    {
+        GrammarValidator validator = new GrammarValidator(grammar);
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ))
+        {
+            long size = channel.size();
+            for (long offset = 0; offset < size; offset += MAP_WINDOW_SIZE)
+            {
+                long length = Math.min(MAP_WINDOW_SIZE, size - offset);
+                MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, offset, length);
+
+                if (!validator.feed(window))
+                {
+                    return false;
+                }
+            }
+        }
+
+        return validator.isBalanced();
+    }
+
+    // test method
+    public static void main(String[] args)
+    {
+        // the strict grammar gives the same answers as ParenthesesValidator
+        DelimiterGrammar strict = DelimiterGrammar.strict();
+        Random random = new Random(8);
+        String alphabet = "()[]{}a";
+        for (int n = 0; n < 5000; n++)
+        {
+            StringBuilder sb = new StringBuilder();
+            int length = random.nextInt(12);
+            for (int i = 0; i < length; i++)
+            {
+                sb.append(alphabet.charAt(random.nextInt(random.nextInt(10) == 0 ? 7 : 6)));
+            }
+
+            String input = sb.toString();
+            boolean grammar_result = validate(strict, input);
+            boolean validator_result = ParenthesesValidator.validate(input);
+
+            assert grammar_result == validator_result : input;
+        }
+
+        // JSON, brackets inside strings do not count
+        DelimiterGrammar json = DelimiterGrammar.json();
+        assert validate(json, "{\"a\": [1, 2, {\"b\": \"]}\"}], \"c\": \"\\\"[\"}");
+        assert !validate(json, "{\"a\": [1, 2}");
+        assert !validate(json, "{\"a\": \"unterminated}");
+
+        // parentheses are no delimiters in JSON
+        assert validate(json, "[\"(\", (1]");
+
+        // C-like code, brackets in strings, characters and comments do not
+        // count, and a slash on its own is division
+        DelimiterGrammar c = DelimiterGrammar.cLike();
+        String code = "int f(int a[]) { // ) ]\n" +
+                "    char c = '}'; /* ( { [ */\n" +
+                "    return a[0] / 2 + strlen(\"(\\\")\");\n" +
+                "}\n";
+        assert validate(c, code);
+        assert !validate(c, "int f() { /* } */");
+        assert !validate(c, "f(x /* ) */");
+
+        // the same code fed one byte at a time, so every delimiter is split
+        // between two pieces
+        GrammarValidator validator = new GrammarValidator(c);
+        byte[] bytes = code.getBytes(StandardCharsets.US_ASCII);
+        for (byte b : bytes)
+        {
+            validator.feed(ByteBuffer.wrap(new byte[] { b }));
+        }
+
+        assert validator.isBalanced();
+
+        // the error position points at the offending byte
+        validator.reset();
+        validator.feed(ByteBuffer.wrap("f(\")\"]".getBytes(StandardCharsets.US_ASCII)));
+        long mismatch_position_result = validator.errorPosition();
+        assert mismatch_position_result == 5 : mismatch_position_result;
+
+        // the validator keeps a copy of the grammar, a comment added to the
+        // grammar afterwards does not change its answers
+        DelimiterGrammar changed = DelimiterGrammar.cLike();
+        GrammarValidator copied = new GrammarValidator(changed);
+        changed.addLineComment("/#");
+
+        byte[] hash = "f(x /# )\n".getBytes(StandardCharsets.US_ASCII);
+        copied.feed(ByteBuffer.wrap(hash));
+        boolean copied_result = copied.isBalanced();
+        boolean changed_result = validate(changed, ByteBuffer.wrap(hash));
+
+        assert copied_result;
+        assert !changed_result;
+
+        // a custom grammar for templates, with angle brackets and '#'
+        // comments, where a lone '/' is rejected
+        DelimiterGrammar template = new DelimiterGrammar();
+        template.addPair('<', '>');
+        template.addPair('(', ')');
+        template.addLineComment("#");
+        template.addBlockComment("/-", "-/");
+        assert validate(template, "<<()>># >\n/- > -/<>");
+        assert !validate(template, "</>");
+
+        GrammarValidator slash = new GrammarValidator(template);
+        slash.feed(ByteBuffer.wrap("<>/".getBytes(StandardCharsets.US_ASCII)));
+        long slash_position_result = slash.errorPosition();
+        assert !slash.isBalanced();
+        assert slash_position_result == 2 : slash_position_result;
+
+        // case test
+        // throughput on a large JSON-like document
+        StringBuilder document = new StringBuilder("[");
+        while (document.length() < 50_000_000)
+        {
+            document.append("{\"id\": 12345, \"tags\": [\"a]\", \"b{\"], \"text\": \"lorem ipsum (dolor)\"},\n");
+        }
+
+        document.append("{}]");
+
+        ByteBuffer buffer = ByteBuffer.allocateDirect(document.length());
+        buffer.put(document.toString().getBytes(StandardCharsets.US_ASCII));
+        buffer.flip();
+
+        long start = System.nanoTime();
+        boolean document_result = validate(json, buffer);
+        long elapsed = System.nanoTime() - start;
+
+        assert document_result;
+        System.out.println(String.format("%d bytes of JSON validated at %.0f MB/s",
+                document.length(), document.length() * 1e3 / elapsed));
+    }
+}
@@ -0,0 +1,321 @@
+/*
+    Author: Andreas Hammarstrand
+    Written: 2026/10/18
+    Purpose:
+        HeapOrderedQueue<T> is an ordered queue like OrderedQueue, values
+        are dequeued in ascending order, but it is backed by a binary heap
+        in an array instead of a sorted linked list. `enqueue` and `dequeue`
+        are O(log n) and `peek` is O(1), where the linked OrderedQueue has to
+        walk the list on every enqueue.
+    Usage:
+        Create an instance with `new HeapOrderedQueue<T>()` where `T` is a
+        comparable type, e.g. `new HeapOrderedQueue<Integer>()`. Use
+        `void enqueue(T item)` to add an item, `T dequeue()` to remove the
+        smallest item and `T peek()` to look at it. Iterating the queue
+        visits the values in sorted order without removing them, which
+        costs O(n log n). To run tests, run static main function of the
+        class.
+ */
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+public class HeapOrderedQueue<T extends Comparable<? super T>> implements Queue<T>
+{
+    private static final int MIN_CAPACITY = 8;
+
+    // the heap is kept in `values[0..size)`, the children of the value at
+    // `i` are at `2i + 1` and `2i + 2` and no child is smaller than its parent.
+    private T[] values;
+    private int size;
+
+    public HeapOrderedQueue()
+    {
+        values = (T[])new Comparable<?>[MIN_CAPACITY];
+    }
+
+    // returns amount of elements in the queue.
+    public int size()
+    {
+        return size;
+    }
+
+    // returns true if the queue is empty, otherwise false.
+    public boolean isEmpty()
+    {
+        return size == 0;
+    }
+
+    private void resize(int newLength)
+    {
+        T[] newValues = (T[])new Comparable<?>[newLength];
+        System.arraycopy(values, 0, newValues, 0, size);
+        values = newValues;
+    }
+
+    // moves the value at `index` up until its parent is not bigger.
+    private static <T extends Comparable<? super T>> void siftUp(T[] heap, int index)
+    {
+        T value = heap[index];
+        while (index > 0)
+        {
+            int parent = (index - 1) >>> 1;
+            if (value.compareTo(heap[parent]) >= 0)
+            {
+                break;
+            }
+
+            heap[index] = heap[parent];
+            index = parent;
+        }
+
+        heap[index] = value;
+    }
+
+    // moves the value at `index` down until no child is smaller.
+    private static <T extends Comparable<? super T>> void siftDown(T[] heap, int index, int size)
+    {
+        T value = heap[index];
+        int half = size >>> 1;
+
+        // only values in the first half have children
+        while (index < half)
+        {
+            int child = 2 * index + 1;
+            int right = child + 1;
+
+            if (right < size && heap[right].compareTo(heap[child]) < 0)
+            {
+                child = right;
+            }
+
+            if (value.compareTo(heap[child]) <= 0)
+            {
+                break;
+            }
+
+            heap[index] = heap[child];
+            index = child;
+        }
+
+        heap[index] = value;
+    }
+
+    // puts the item into the queue, after all items with less or equal value.
+    public void enqueue(T item)
+    {
+        if (item == null)
+        {
+            throw new IllegalArgumentException();
+        }
+
+        if (size == values.length)
+        {
+            resize(values.length * 2);
+        }
+
+        values[size] = item;
+        siftUp(values, size);
+        size++;
+    }
+
+    // returns and removes the smallest value in the queue.
+    public T dequeue()
+    {
+        if (size == 0)
+        {
+            throw new IndexOutOfBoundsException();
+        }
+
+        T value = values[0];
+
+        // move the last value to the root and let it sink into place
+        size--;
+        values[0] = values[size];
+        values[size] = null;
+        if (size > 0)
+        {
+            siftDown(values, 0, size);
+        }
+
+        if (values.length > MIN_CAPACITY && size < values.length / 4)
+        {
+            resize(values.length / 2);
+        }
+
+        return value;
+    }
+
+    // returns the smallest value in the queue without removing it.
+    public T peek()
+    {
+        if (size == 0)
+        {
+            throw new IndexOutOfBoundsException();
+        }
+
+        return values[0];
+    }
+
+    // returns a string representation of the queue instance, in sorted order.
+    @Override
+    public String toString()
+    {
+        if (isEmpty())
+        {
+            return "[]";
+        }
+
+        StringBuilder sb = new StringBuilder();
+        sb.append('[');
+
+        Iterator<T> iter = iterator();
+        sb.append(iter.next().toString());
+        while (iter.hasNext())
+        {
+            sb
+                    .append(", ")
+                    .append(iter.next().toString());
+        }
+
+        sb.append(']');
+        return sb.toString();
+    }
+
+    // returns an iterator that visits the values in ascending order.
+    public Iterator<T> iterator()
+    {
+        return new SortedIterator();
+    }
+
+    // iterates by dequeueing from a copy of the heap, so the queue itself
+    // is left untouched.
+    private class SortedIterator implements Iterator<T>
+    {
+        T[] heap;
+        int remaining;
+
+        public SortedIterator()
+        {
+            heap = (T[])new Comparable<?>[size];
+            System.arraycopy(values, 0, heap, 0, size);
+            remaining = size;
+        }
+
+        // returns a bool specifying if the iterator has following element.
+        public boolean hasNext()
+        {
+            return remaining > 0;
+        }
+
+        // moves the iterator to the next value and returns it.
+        public T next()
+        {
+            if (remaining == 0)
+            {
+                throw new NoSuchElementException();
+            }
+
+            T value = heap[0];
+
+            remaining--;
+            heap[0] = heap[remaining];
+            heap[remaining] = null;
+            if (remaining > 0)
+            {
+                siftDown(heap, 0, remaining);
+            }
+
+            return value;
+        }
+
+        // warnings are given when `remove` is not overridden,
+        // throwing UnsupportedOperation exception instead.
+        public void remove()
+        {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    // test method
+    public static void main(String[] args)
+    {
+        HeapOrderedQueue<Integer> q = new HeapOrderedQueue<Integer>();
+
+        // tests that values are added correctly
+        q.enqueue(1);
+
+        int enqueue_size_result = q.size();
+        assert enqueue_size_result == 1 : enqueue_size_result;
+
+        // tests if values are put between each other
+        q.enqueue(3);
+        q.enqueue(2);
+
+        String toString_result = q.toString();
+        int peek_result = q.peek();
+
+        assert toString_result.equals("[1, 2, 3]") : toString_result;
+        assert peek_result == 1 : peek_result;
+
+        int first_dequeue = q.dequeue();
+        int second_dequeue = q.dequeue();
+        int third_dequeue = q.dequeue();
+
+        assert first_dequeue == 1 : first_dequeue;
+        assert second_dequeue == 2 : second_dequeue;
+        assert third_dequeue == 3 : third_dequeue;
+        assert q.isEmpty();
+
+        // case test
+        // the heap has to dequeue in the same order as the linked
+        // `OrderedQueue`, including duplicates.
+        Random random = new Random(1);
+        OrderedQueue linked = new OrderedQueue();
+
+        for (int i = 0; i < 2000; i++)
+        {
+            int value = random.nextInt(500) - 250;
+            q.enqueue(value);
+            linked.enqueue(value);
+
+            // dequeue now and then so both grow and shrink
+            if (i % 7 == 0)
+            {
+                int heap_result = q.dequeue();
+                int linked_result = linked.dequeue();
+                assert heap_result == linked_result : heap_result + " " + linked_result;
+            }
+        }
+
+        String sorted_toString = q.toString();
+        String linked_toString = linked.toString();
+        assert sorted_toString.equals(linked_toString) : sorted_toString;
+
+        while (!q.isEmpty())
+        {
+            int heap_result = q.dequeue();
+            int linked_result = linked.dequeue();
+            assert heap_result == linked_result : heap_result + " " + linked_result;
+        }
+
+        // a large backlog, which takes quadratic time in the linked queue
+        long start = System.nanoTime();
+        for (int i = 0; i < 500_000; i++)
+        {
+            q.enqueue(random.nextInt());
+        }
+
+        int previous = Integer.MIN_VALUE;
+        while (!q.isEmpty())
+        {
+            int value = q.dequeue();
+            assert value >= previous : value;
+            previous = value;
+        }
+
+        System.out.println("500000 values enqueued and dequeued in " +
+                (System.nanoTime() - start) / 1_000_000 + " ms");
+    }
+}
@@ -0,0 +1,490 @@
+/*
+    Author: Andreas Hammarstrand
+    Written: 2026/10/18
+    Purpose:
+        IncrementalParenthesesValidator keeps track of whether a document
+        that is being edited has balanced brackets, without scanning the
+        whole document after every edit. The text is kept in blocks of a
+        few hundred characters, held in an implicit treap (as in
+        IndexedGeneralizedQueue) ordered by position. Every node stores the
+        BracketSummary of its block and the combined summary of its subtree,
+        so an edit only rescans the blocks it touches and recombines the
+        summaries on the way back up to the root. Because summaries are
+        associative, the root summary always describes the whole document.
+        Characters that are not brackets are skipped, as the document is
+        expected to hold text or code around the brackets.
+        An edit costs O(log n) combines plus the length of the edit. A
+        combine costs up to the amount of unmatched brackets of the two
+        summaries, so deeply nested documents are more expensive to update.
+    Usage:
+        Create an instance with `new IncrementalParenthesesValidator()` and
+        edit it with `insert(int position, CharSequence text)`,
+        `delete(int from, int to)` and
+        `replace(int from, int to, CharSequence text)`, where ranges are
+        half-open character indices. `isBalanced()` is O(1) and
+        `firstMismatch()` returns the index of the first bracket that cannot
+        be matched, the document length if brackets are left open, or -1 if
+        the document is balanced. To run tests, run static main function of
+        the class.
+ */
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+public class IncrementalParenthesesValidator
+{
+    private static final int DEFAULT_BLOCK_SIZE = 512;
+
+    private static class Node
+    {
+        String text;
+
+        // the summary of `text`, and of every block in the subtree
+        BracketSummary summary;
+        BracketSummary total;
+
+        Node left, right;
+
+        // random priority, no child has a higher priority than its parent
+        int priority;
+
+        // amount of characters in the subtree rooted at this node
+        int length;
+    }
+
+    private Node root;
+
+    // the two trees produced by the last split
+    private Node lower, upper;
+
+    // blocks are at most `maxBlock` long, and all blocks but the last are at
+    // least `minBlock` long, so the amount of blocks stays proportional to
+    // the length of the document.
+    private final int maxBlock;
+    private final int minBlock;
+
+    // state of the xorshift generator used for node priorities
+    private int seed = 0x9E3779B9;
+
+    public IncrementalParenthesesValidator()
+    {
+        this(DEFAULT_BLOCK_SIZE);
+    }
+
+    public IncrementalParenthesesValidator(int blockSize)
+    {
+        if (blockSize < 1)
+        {
+            throw new IllegalArgumentException();
+        }
+
+        maxBlock = blockSize;
+        minBlock = Math.max(1, blockSize / 4);
+    }
+
+    private static int length(Node node)
+    {
+        return node == null ? 0 : node.length;
+    }
+
+    private static BracketSummary total(Node node)
+    {
+        return node == null ? BracketSummary.EMPTY : node.total;
+    }
+
+    private int nextPriority()
+    {
+        int x = seed;
+        x ^= x << 13;
+        x ^= x >>> 17;
+        x ^= x << 5;
+        seed = x;
+        return x;
+    }
+
+    private void update(Node node)
+    {
+        node.length = length(node.left) + node.text.length() + length(node.right);
+        node.total = BracketSummary.combine(
+                BracketSummary.combine(total(node.left), node.summary), total(node.right));
+    }
+
+    // joins two trees where every position in `left` comes before every
+    // position in `right`.
+    private Node merge(Node left, Node right)
+    {
+        if (left == null)
+        {
+            return right;
+        }
+
+        if (right == null)
+        {
+            return left;
+        }
+
+        if (left.priority > right.priority)
+        {
+            left.right = merge(left.right, right);
+            update(left);
+            return left;
+        }
+
+        right.left = merge(left, right.left);
+        update(right);
+        return right;
+    }
+
+    // splits the subtree of `node` into the blocks that end before
+    // `position`, stored in `lower`, and the rest, stored in `upper`.
+    private void splitBeforeEnd(Node node, int position)
+    {
+        if (node == null)
+        {
+            lower = upper = null;
+            return;
+        }
+
+        int end = length(node.left) + node.text.length();
+        if (end < position)
+        {
+            splitBeforeEnd(node.right, position - end);
+            node.right = lower;
+            update(node);
+            lower = node;
+        }
+        else
+        {
+            splitBeforeEnd(node.left, position);
+            node.left = upper;
+            update(node);
+            upper = node;
+        }
+    }
+
+    // splits the subtree of `node` into the blocks that start at or before
+    // `position`, stored in `lower`, and the rest, stored in `upper`.
+    private void splitAfterStart(Node node, int position)
+    {
+        if (node == null)
+        {
+            lower = upper = null;
+            return;
+        }
+
+        int start = length(node.left);
+        if (start <= position)
+        {
+            splitAfterStart(node.right, position - start - node.text.length());
+            node.right = lower;
+            update(node);
+            lower = node;
+        }
+        else
+        {
+            splitAfterStart(node.left, position);
+            node.left = upper;
+            update(node);
+            upper = node;
+        }
+    }
+
+    // appends the text of every block in the subtree, in order
+    private static void collect(Node node, StringBuilder sb)
+    {
+        if (node != null)
+        {
+            collect(node.left, sb);
+            sb.append(node.text);
+            collect(node.right, sb);
+        }
+    }
+
+    // cuts `text` into blocks of at most `maxBlock` characters, as even as
+    // possible, and returns them as a tree.
+    private Node build(CharSequence text)
+    {
+        int blocks = (text.length() + maxBlock - 1) / maxBlock;
+        Node tree = null;
+
+        for (int k = 0; k < blocks; k++)
+        {
+            Node n = new Node();
+            n.text = text.subSequence(
+                    (int)((long)text.length() * k / blocks),
+                    (int)((long)text.length() * (k + 1) / blocks)).toString();
+            n.summary = BracketSummary.ofText(n.text, 0, n.text.length());
+            n.priority = nextPriority();
+            update(n);
+
+            tree = merge(tree, n);
+        }
+
+        return tree;
+    }
+
+    // returns the amount of characters in the document.
+    public int length()
+    {
+        return length(root);
+    }
+
+    // replaces the characters `[from..to)` of the document with `text`.
+    public void replace(int from, int to, CharSequence text)
+    {
+        if (from < 0 || to < from || to > length())
+        {
+            throw new IndexOutOfBoundsException();
+        }
+
+        if (text == null)
+        {
+            throw new IllegalArgumentException();
+        }
+
+        // the blocks touching the range, including the neighbours that only
+        // touch its ends, are taken out and cut again
+        splitBeforeEnd(root, from);
+        Node left = lower;
+        int middleStart = length(left);
+
+        splitAfterStart(upper, to - middleStart);
+        Node middle = lower;
+        Node right = upper;
+
+        StringBuilder sb = new StringBuilder(length(middle) + text.length());
+        collect(middle, sb);
+        sb.replace(from - middleStart, to - middleStart, text.toString());
+
+        // a short block is joined with the one after it, so that only the
+        // last block of the document can be short
+        if (sb.length() < minBlock && right != null)
+        {
+            splitAfterStart(right, 0);
+            collect(lower, sb);
+            right = upper;
+        }
+
+        root = merge(merge(left, build(sb)), right);
+    }
+
+    // inserts `text` at `position`.
+    public void insert(int position, CharSequence text)
+    {
+        replace(position, position, text);
+    }
+
+    // removes the characters `[from..to)` of the document.
+    public void delete(int from, int to)
+    {
+        replace(from, to, "");
+    }
+
+    // returns true if the brackets of the document are balanced.
+    public boolean isBalanced()
+    {
+        return total(root).isBalanced();
+    }
+
+    // returns true if `summary` can no longer be the start of a balanced
+    // document.
+    private static boolean isBroken(BracketSummary summary)
+    {
+        return !summary.isValid() || summary.unmatchedClosers() > 0;
+    }
+
+    // returns the position of the first bracket that cannot be matched, the
+    // document length if brackets were left open, or -1 if it is balanced.
+    public int firstMismatch()
+    {
+        BracketSummary all = total(root);
+        if (all.isBalanced())
+        {
+            return -1;
+        }
+
+        if (!isBroken(all))
+        {
+            return length();
+        }
+
+        // descend towards the first block whose prefix is broken, keeping
+        // the summary of everything before the current subtree
+        Node node = root;
+        BracketSummary before = BracketSummary.EMPTY;
+        int offset = 0;
+
+        while (true)
+        {
+            BracketSummary withLeft = BracketSummary.combine(before, total(node.left));
+            if (isBroken(withLeft))
+            {
+                node = node.left;
+                continue;
+            }
+
+            before = withLeft;
+            offset += length(node.left);
+
+            BracketSummary withBlock = BracketSummary.combine(before, node.summary);
+            if (isBroken(withBlock))
+            {
+                return offset + BracketSummary.firstMismatch(before, node.text, 0, node.text.length());
+            }
+
+            before = withBlock;
+            offset += node.text.length();
+            node = node.right;
+        }
+    }
+
+    // returns the text of the document.
+    @Override
+    public String toString()
+    {
+        StringBuilder sb = new StringBuilder(length());
+        collect(root, sb);
+        return sb.toString();
+    }
+
+    // test method
+    public static void main(String[] args)
+    {
+        IncrementalParenthesesValidator document = new IncrementalParenthesesValidator();
+
+        assert document.isBalanced();
+        assert document.firstMismatch() == -1;
+
+        document.insert(0, "int f(int x) { return x; }");
+        assert document.isBalanced();
+
+        // removing the closing parenthesis of the parameter list leaves it
+        // open until the end of the document
+        document.delete(11, 12);
+        int deleted_result = document.firstMismatch();
+        String deleted_toString = document.toString();
+
+        assert !document.isBalanced();
+        assert deleted_toString.equals("int f(int x { return x; }") : deleted_toString;
+        assert deleted_result == 25 : deleted_result;
+
+        // a closing bracket of the wrong kind is reported where it is
+        document.insert(11, "]");
+        int replaced_result = document.firstMismatch();
+        assert replaced_result == 11 : replaced_result;
+
+        document.replace(11, 12, ")");
+        assert document.isBalanced();
+
+        // an unclosed bracket at the end is reported at the document length
+        document.insert(document.length(), " if (x");
+        int open_result = document.firstMismatch();
+        assert open_result == document.length() : open_result;
+
+        document.replace(document.length() - 6, document.length(), "");
+        assert document.isBalanced();
+
+        // case test
+        // random edits on small blocks must give the same answers as
+        // validating the whole text again after every edit.
+        Random random = new Random(7);
+        IncrementalParenthesesValidator incremental = new IncrementalParenthesesValidator(8);
+        StringBuilder text = new StringBuilder();
+        String alphabet = "()[]{}ab ";
+
+        for (int n = 0; n < 5000; n++)
+        {
+            int from = random.nextInt(text.length() + 1);
+            int to = from + random.nextInt(Math.min(20, text.length() - from) + 1);
+
+            StringBuilder inserted = new StringBuilder();
+            int insertedLength = random.nextInt(4) == 0 ? 0 : random.nextInt(30);
+            for (int i = 0; i < insertedLength; i++)
+            {
+                inserted.append(alphabet.charAt(random.nextInt(alphabet.length())));
+            }
+
+            // now and then the document is made balanced by closing brackets
+            // at the end, so that balanced documents are tested as well
+            if (random.nextInt(10) == 0)
+            {
+                text.setLength(0);
+                text.append(balanced(random, 1 + random.nextInt(100)));
+                incremental.replace(0, incremental.length(), text);
+            }
+            else
+            {
+                text.replace(from, to, inserted.toString());
+                incremental.replace(from, to, inserted);
+            }
+
+            ParenthesesValidator validator = new ParenthesesValidator(true);
+            validator.feed(ByteBuffer.wrap(text.toString().getBytes(StandardCharsets.US_ASCII)));
+
+            boolean balanced_result = incremental.isBalanced();
+            int mismatch_result = incremental.firstMismatch();
+
+            assert balanced_result == validator.isBalanced() : text;
+            assert mismatch_result == validator.errorPosition() : text + " " + mismatch_result;
+        }
+
+        String incremental_toString = incremental.toString();
+        assert incremental_toString.equals(text.toString()) : incremental_toString;
+
+        // single character edits in a large document that is nested like
+        // code, only a few levels deep
+        StringBuilder code = new StringBuilder();
+        while (code.length() < 10_000_000)
+        {
+            code.append("void f(int[] a) { if (a[0] > 0) { g(a[1], (a[2])); } }\n");
+        }
+
+        IncrementalParenthesesValidator large = new IncrementalParenthesesValidator();
+        large.insert(0, code);
+
+        long start = System.nanoTime();
+        for (int n = 0; n < 100_000; n++)
+        {
+            int position = random.nextInt(large.length());
+            large.insert(position, "x");
+            large.delete(position, position + 1);
+        }
+
+        long elapsed = System.nanoTime() - start;
+
+        assert large.isBalanced();
+        System.out.println("200000 edits of a " + large.length() + " character document in " +
+                elapsed / 1_000_000 + " ms");
+    }
+
+    // returns balanced text with the given amount of bracket pairs
+    private static String balanced(Random random, int pairs)
+    {
+        StringBuilder sb = new StringBuilder();
+        CharStack open = new CharStack();
+        String opening = "([{";
+        String closing = ")]}";
+
+        while (pairs > 0 || !open.isEmpty())
+        {
+            if (random.nextInt(4) == 0)
+            {
+                sb.append('a');
+            }
+            else if (pairs > 0 && (open.isEmpty() || random.nextBoolean()))
+            {
+                int kind = random.nextInt(3);
+                sb.append(opening.charAt(kind));
+                open.push(closing.charAt(kind));
+                pairs--;
+            }
+            else
+            {
+                sb.append(open.pop());
+            }
+        }
+
+        return sb.toString();
+    }
+}
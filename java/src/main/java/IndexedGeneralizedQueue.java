@@ -0,0 +1,384 @@
+/*
+    Author: Andreas Hammarstrand
+    Written: 2026/10/18
+    Purpose:
+        IndexedGeneralizedQueue<T> has the functionality of
+        GeneralizedQueue<T>, but finds a value by index in O(log n) instead
+        of walking up to half of the list. The values are kept in an
+        implicit treap: a binary tree ordered by queue position, where every
+        node knows the size of its subtree so that the node at an index can
+        be found by descending from the root, and that is kept balanced by
+        giving every node a random priority that has to be bigger than the
+        priorities of its children.
+    Usage:
+        Create an instance with `new IndexedGeneralizedQueue<T>()`. It has
+        the same `enqueue`, `dequeue` and `removeAt(int index)` as
+        GeneralizedQueue<T>, and `T get(int index)` to look at a value
+        without removing it. Indices are 1-based, as in GeneralizedQueue.
+        All four operations are O(log n). To run tests, run static main
+        function of the class.
+ */
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+public class IndexedGeneralizedQueue<T> implements Queue<T>
+{
+    private class Node
+    {
+        T value;
+        Node left, right;
+
+        // random priority, no child has a higher priority than its parent
+        int priority;
+
+        // amount of nodes in the subtree rooted at this node
+        int size = 1;
+
+        @Override
+        public String toString()
+        {
+            return value.toString();
+        }
+    }
+
+    private Node root;
+
+    // the node taken out by the last call to `remove`
+    private Node removed;
+
+    // state of the xorshift generator used for node priorities
+    private int seed = 0x9E3779B9;
+
+    public IndexedGeneralizedQueue()
+    {
+    }
+
+    private static int size(IndexedGeneralizedQueue<?>.Node node)
+    {
+        return node == null ? 0 : node.size;
+    }
+
+    private int nextPriority()
+    {
+        int x = seed;
+        x ^= x << 13;
+        x ^= x >>> 17;
+        x ^= x << 5;
+        seed = x;
+        return x;
+    }
+
+    private void update(Node node)
+    {
+        node.size = 1 + size(node.left) + size(node.right);
+    }
+
+    // joins two trees where every position in `left` comes before every
+    // position in `right`.
+    private Node merge(Node left, Node right)
+    {
+        if (left == null)
+        {
+            return right;
+        }
+
+        if (right == null)
+        {
+            return left;
+        }
+
+        if (left.priority > right.priority)
+        {
+            left.right = merge(left.right, right);
+            update(left);
+            return left;
+        }
+
+        right.left = merge(left, right.left);
+        update(right);
+        return right;
+    }
+
+    // removes the node at the 0-based `index` in the subtree of `node` and
+    // stores it in `removed`, returns the new root of the subtree.
+    private Node remove(Node node, int index)
+    {
+        int leftSize = size(node.left);
+
+        if (index == leftSize)
+        {
+            removed = node;
+            return merge(node.left, node.right);
+        }
+
+        if (index < leftSize)
+        {
+            node.left = remove(node.left, index);
+        }
+        else
+        {
+            node.right = remove(node.right, index - leftSize - 1);
+        }
+
+        node.size--;
+        return node;
+    }
+
+    // returns amount of elements in the queue.
+    public int size()
+    {
+        return size(root);
+    }
+
+    // returns true if the queue is empty, otherwise false.
+    public boolean isEmpty()
+    {
+        return root == null;
+    }
+
+    // puts the item at the end of the queue.
+    public void enqueue(T item)
+    {
+        Node n = new Node();
+        n.value = item;
+        n.priority = nextPriority();
+
+        // the new node has the highest position, so it is merged in last
+        root = merge(root, n);
+    }
+
+    // returns and removes the value from the front of the queue.
+    public T dequeue()
+    {
+        if (root == null)
+        {
+            throw new IndexOutOfBoundsException();
+        }
+
+        return removeAt(1);
+    }
+
+    // index is 1-based
+    // returns the value at the specified index.
+    public T get(int index)
+    {
+        if (index < 1 || index > size())
+        {
+            throw new IndexOutOfBoundsException();
+        }
+
+        // descend from the root, using the subtree sizes to choose a side
+        Node current = root;
+        int remaining = index - 1;
+        while (true)
+        {
+            int leftSize = size(current.left);
+            if (remaining == leftSize)
+            {
+                return current.value;
+            }
+
+            if (remaining < leftSize)
+            {
+                current = current.left;
+            }
+            else
+            {
+                remaining -= leftSize + 1;
+                current = current.right;
+            }
+        }
+    }
+
+    // index is 1-based
+    // removes and returns the value at the specified index.
+    public T removeAt(int index)
+    {
+        // we cannot remove or return an element that is not part of the queue
+        if (index < 1 || index > size())
+        {
+            throw new IndexOutOfBoundsException();
+        }
+
+        root = remove(root, index - 1);
+
+        T value = removed.value;
+        removed.value = null;
+        removed.left = removed.right = null;
+        removed = null;
+        return value;
+    }
+
+    // returns a string representation of the queue instance.
+    @Override
+    public String toString()
+    {
+        // using a standard case to return a standard value
+        if (isEmpty())
+        {
+            return "[]";
+        }
+
+        StringBuilder sb = new StringBuilder();
+        sb.append('[');
+
+        Iterator<T> iter = iterator();
+        sb.append(iter.next().toString());
+        while (iter.hasNext())
+        {
+            sb
+                    .append(", ")
+                    .append(iter.next().toString());
+        }
+
+        sb.append(']');
+        return sb.toString();
+    }
+
+    // returns an iterator that spans over the queue, from front to back.
+    public Iterator<T> iterator()
+    {
+        return new InOrderIterator();
+    }
+
+    // walks the tree in order, keeping the path of nodes whose value has
+    // not been visited yet on a stack.
+    private class InOrderIterator implements Iterator<T>
+    {
+        Stack<Node> path = new Stack<Node>();
+
+        public InOrderIterator()
+        {
+            pushLeft(root);
+        }
+
+        private void pushLeft(Node node)
+        {
+            while (node != null)
+            {
+                path.push(node);
+                node = node.left;
+            }
+        }
+
+        // returns a bool specifying if the iterator has following element.
+        public boolean hasNext()
+        {
+            return !path.isEmpty();
+        }
+
+        // moves the iterator to the next value and returns it.
+        public T next()
+        {
+            if (path.isEmpty())
+            {
+                throw new NoSuchElementException();
+            }
+
+            Node node = path.pop();
+            pushLeft(node.right);
+            return node.value;
+        }
+
+        // warnings are given when `remove` is not overridden,
+        // throwing UnsupportedOperation exception instead.
+        public void remove()
+        {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    // test method
+    public static void main(String[] args)
+    {
+        IndexedGeneralizedQueue<Character> q = new IndexedGeneralizedQueue<Character>();
+
+        // testing removal of one value
+        q.enqueue('a');
+        char removeAt_result = q.removeAt(1);
+
+        assert removeAt_result == 'a' : removeAt_result;
+        assert q.isEmpty();
+
+        // testing removal of middle, front half and end values
+        for (char c : "abcdef".toCharArray())
+        {
+            q.enqueue(c);
+        }
+
+        char get_result = q.get(3);
+        char removeAt_middle_result = q.removeAt(3);
+        char removeAt_front_result = q.removeAt(2);
+        char removeAt_end_result = q.removeAt(4);
+
+        assert get_result == 'c' : get_result;
+        assert removeAt_middle_result == 'c' : removeAt_middle_result;
+        assert removeAt_front_result == 'b' : removeAt_front_result;
+        assert removeAt_end_result == 'f' : removeAt_end_result;
+        assert q.toString().equals("[a, d, e]") : q;
+
+        char dequeue_result = q.dequeue();
+        assert dequeue_result == 'a' : dequeue_result;
+
+        while (!q.isEmpty())
+        {
+            q.dequeue();
+        }
+
+        // the same case as for GeneralizedQueue: a misspelt word
+        for (char c : "Hellloip".toCharArray())
+        {
+            q.enqueue(c);
+        }
+
+        char extra_l = q.removeAt(5);
+        char i = q.removeAt(6);
+        char p = q.removeAt(6);
+
+        assert extra_l == 'l' : extra_l;
+        assert i == 'i' : i;
+        assert p == 'p' : p;
+        assert q.toString().equals("[H, e, l, l, o]") : q;
+
+        // case test
+        // random operations must give the same results as GeneralizedQueue
+        Random random = new Random(3);
+        IndexedGeneralizedQueue<Integer> indexed = new IndexedGeneralizedQueue<Integer>();
+        GeneralizedQueue<Integer> linked = new GeneralizedQueue<Integer>();
+
+        for (int n = 0; n < 20_000; n++)
+        {
+            int operation = random.nextInt(4);
+            if (operation < 2 || linked.isEmpty())
+            {
+                indexed.enqueue(n);
+                linked.enqueue(n);
+            }
+            else if (operation == 2)
+            {
+                int indexed_result = indexed.dequeue();
+                int linked_result = linked.dequeue();
+                assert indexed_result == linked_result : indexed_result + " " + linked_result;
+            }
+            else
+            {
+                int index = 1 + random.nextInt(linked.size());
+                int indexed_get = indexed.get(index);
+                int indexed_result = indexed.removeAt(index);
+                int linked_result = linked.removeAt(index);
+                assert indexed_get == linked_result : indexed_get + " " + linked_result;
+                assert indexed_result == linked_result : indexed_result + " " + linked_result;
+            }
+
+            assert indexed.size() == linked.size() : indexed.size();
+        }
+
+        String indexed_toString = indexed.toString();
+        String linked_toString = linked.toString();
+        assert indexed_toString.equals(linked_toString) : indexed_toString;
+
+        System.out.println(q);
+    }
+}
@@ -0,0 +1,291 @@
+/*
+    Author: Andreas Hammarstrand
+    Written: 2026/10/18
+    Purpose:
+        IntOrderedQueue is an ordered queue of primitive `int` values, values
+        are dequeued in ascending order exactly like OrderedQueue. The values
+        are kept in a binary heap in an `int[]`, so no operation boxes a
+        value or allocates anything apart from the occasional resize.
+    Usage:
+        Create a new instance with `new IntOrderedQueue()`. Use
+        `void enqueue(int item)` to add an item to the queue,
+        `int dequeue()` to remove the smallest item and `int peek()` to look
+        at it. `iterator()` returns a `PrimitiveIterator.OfInt` that visits
+        the values in ascending order without removing them. To run tests,
+        run static main function of the class.
+ */
+
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.Random;
+
+public class IntOrderedQueue implements Iterable<Integer>
+{
+    private static final int MIN_CAPACITY = 8;
+
+    // the heap is kept in `values[0..size)`, the children of the value at
+    // `i` are at `2i + 1` and `2i + 2` and no child is smaller than its parent.
+    private int[] values;
+    private int size;
+
+    public IntOrderedQueue()
+    {
+        values = new int[MIN_CAPACITY];
+    }
+
+    // returns amount of elements in the queue.
+    public int size()
+    {
+        return size;
+    }
+
+    // returns true if the queue is empty, otherwise false.
+    public boolean isEmpty()
+    {
+        return size == 0;
+    }
+
+    private void resize(int newLength)
+    {
+        int[] newValues = new int[newLength];
+        System.arraycopy(values, 0, newValues, 0, size);
+        values = newValues;
+    }
+
+    // moves `value` down from `index` until no child is smaller.
+    private static void siftDown(int[] heap, int index, int value, int size)
+    {
+        int half = size >>> 1;
+
+        // only values in the first half have children
+        while (index < half)
+        {
+            int child = 2 * index + 1;
+            int right = child + 1;
+
+            if (right < size && heap[right] < heap[child])
+            {
+                child = right;
+            }
+
+            if (value <= heap[child])
+            {
+                break;
+            }
+
+            heap[index] = heap[child];
+            index = child;
+        }
+
+        heap[index] = value;
+    }
+
+    // puts the item into the queue, after all items with less or equal value.
+    public void enqueue(int item)
+    {
+        if (size == values.length)
+        {
+            resize(values.length * 2);
+        }
+
+        // move the item up from the end until its parent is not bigger
+        int index = size++;
+        while (index > 0)
+        {
+            int parent = (index - 1) >>> 1;
+            if (item >= values[parent])
+            {
+                break;
+            }
+
+            values[index] = values[parent];
+            index = parent;
+        }
+
+        values[index] = item;
+    }
+
+    // returns and removes the smallest value in the queue.
+    public int dequeue()
+    {
+        if (size == 0)
+        {
+            throw new IndexOutOfBoundsException();
+        }
+
+        int value = values[0];
+
+        // move the last value to the root and let it sink into place
+        size--;
+        if (size > 0)
+        {
+            siftDown(values, 0, values[size], size);
+        }
+
+        if (values.length > MIN_CAPACITY && size < values.length / 4)
+        {
+            resize(values.length / 2);
+        }
+
+        return value;
+    }
+
+    // returns the smallest value in the queue without removing it.
+    public int peek()
+    {
+        if (size == 0)
+        {
+            throw new IndexOutOfBoundsException();
+        }
+
+        return values[0];
+    }
+
+    // returns a string representation of the queue instance, in sorted order.
+    @Override
+    public String toString()
+    {
+        if (isEmpty())
+        {
+            return "[]";
+        }
+
+        StringBuilder sb = new StringBuilder();
+        sb.append('[');
+
+        PrimitiveIterator.OfInt iter = iterator();
+        sb.append(iter.nextInt());
+        while (iter.hasNext())
+        {
+            sb
+                    .append(", ")
+                    .append(iter.nextInt());
+        }
+
+        sb.append(']');
+        return sb.toString();
+    }
+
+    // returns an iterator that visits the values in ascending order.
+    public PrimitiveIterator.OfInt iterator()
+    {
+        return new SortedIterator();
+    }
+
+    // iterates by dequeueing from a copy of the heap, so the queue itself
+    // is left untouched.
+    private class SortedIterator implements PrimitiveIterator.OfInt
+    {
+        int[] heap;
+        int remaining;
+
+        public SortedIterator()
+        {
+            heap = new int[size];
+            System.arraycopy(values, 0, heap, 0, size);
+            remaining = size;
+        }
+
+        // returns a bool specifying if the iterator has following element.
+        public boolean hasNext()
+        {
+            return remaining > 0;
+        }
+
+        // moves the iterator to the next value and returns it, unboxed.
+        public int nextInt()
+        {
+            if (remaining == 0)
+            {
+                throw new NoSuchElementException();
+            }
+
+            int value = heap[0];
+
+            remaining--;
+            if (remaining > 0)
+            {
+                siftDown(heap, 0, heap[remaining], remaining);
+            }
+
+            return value;
+        }
+
+        // warnings are given when `remove` is not overridden,
+        // throwing UnsupportedOperation exception instead.
+        public void remove()
+        {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    // test method
+    public static void main(String[] args)
+    {
+        IntOrderedQueue q = new IntOrderedQueue();
+
+        // tests that values are added correctly
+        q.enqueue(1);
+
+        int enqueue_size_result = q.size();
+        assert enqueue_size_result == 1 : enqueue_size_result;
+
+        // tests if values are put between each other
+        q.enqueue(3);
+        q.enqueue(2);
+
+        String toString_result = q.toString();
+        int peek_result = q.peek();
+
+        assert toString_result.equals("[1, 2, 3]") : toString_result;
+        assert peek_result == 1 : peek_result;
+
+        int first_dequeue = q.dequeue();
+        int second_dequeue = q.dequeue();
+        int third_dequeue = q.dequeue();
+
+        assert first_dequeue == 1 : first_dequeue;
+        assert second_dequeue == 2 : second_dequeue;
+        assert third_dequeue == 3 : third_dequeue;
+        assert q.isEmpty();
+
+        // case test
+        // the primitive queue has to dequeue in exactly the same order as
+        // `OrderedQueue`, including duplicates and extreme values.
+        Random random = new Random(2);
+        OrderedQueue boxed = new OrderedQueue();
+
+        q.enqueue(Integer.MAX_VALUE);
+        boxed.enqueue(Integer.MAX_VALUE);
+        q.enqueue(Integer.MIN_VALUE);
+        boxed.enqueue(Integer.MIN_VALUE);
+
+        for (int i = 0; i < 2000; i++)
+        {
+            int value = random.nextInt(300) - 150;
+            q.enqueue(value);
+            boxed.enqueue(value);
+
+            if (i % 5 == 0)
+            {
+                int primitive_result = q.dequeue();
+                int boxed_result = boxed.dequeue();
+                assert primitive_result == boxed_result : primitive_result + " " + boxed_result;
+            }
+        }
+
+        String primitive_toString = q.toString();
+        String boxed_toString = boxed.toString();
+        assert primitive_toString.equals(boxed_toString) : primitive_toString;
+
+        while (!q.isEmpty())
+        {
+            int primitive_result = q.dequeue();
+            int boxed_result = boxed.dequeue();
+            assert primitive_result == boxed_result : primitive_result + " " + boxed_result;
+        }
+
+        assert boxed.isEmpty();
+        System.out.println(q);
+    }
+}
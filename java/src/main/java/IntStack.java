@@ -0,0 +1,242 @@
+/*
+    Author: Andreas Hammarstrand
+    Written: 2026/10/18
+    Purpose:
+        IntStack is an array-based implementation of a stack of primitive
+        `int` values. It behaves exactly like Stack<Integer> but stores the
+        values in an `int[]` so neither `push` nor `pop` boxes its value.
+    Usage:
+        IntStack is instantiated through `new IntStack()`. Items are added
+        to the stack through `push(int item)` and removed from the stack
+        through `pop()`. `iterator()` returns a `PrimitiveIterator.OfInt`,
+        use `nextInt()` on it to walk the stack without boxing. To run tests,
+        run static main function of the class.
+ */
+
+import java.util.PrimitiveIterator;
+
+public class IntStack implements Iterable<Integer>
+{
+    public IntStack()
+    {
+        values = new int[8];
+    }
+
+    private int[] values;
+
+    // `index` is the index of the next empty position
+    private int index;
+
+    // returns the number of elements in the stack.
+    public int size()
+    {
+        return index;
+    }
+
+    // returns true if stack is empty, otherwise false.
+    public boolean isEmpty()
+    {
+        return index == 0;
+    }
+
+    // creates a new array of larger or smaller size and fills it
+    // with the values from the previous array, then assigns the
+    // new array as the stacks active array.
+    private void resize(int newLength)
+    {
+        int[] newValues = new int[newLength];
+        System.arraycopy(values, 0, newValues, 0, index);
+        values = newValues;
+    }
+
+    // returns the array backing the stack, the elements are at
+    // `[0..size())` from the bottom up. used for bulk copies by Snapshots.
+    int[] array()
+    {
+        return values;
+    }
+
+    // makes `values` the array of the stack, holding `size` elements from
+    // the bottom up. `values` needs room for at least one more element, the
+    // stack grows as usual on the next push.
+    void install(int[] values, int size)
+    {
+        this.values = values;
+        index = size;
+    }
+
+    // removes and returns the element on the top of the stack.
+    public int pop()
+    {
+        // same contract as `Stack.pop`; popping an empty stack is an error.
+        if (index == 0)
+        {
+            throw new IndexOutOfBoundsException();
+        }
+
+        int value = values[--index];
+
+        // shrink when only a quarter of the array is in use
+        if (index < values.length / 4)
+        {
+            resize(values.length / 2);
+        }
+
+        return value;
+    }
+
+    // returns the element on the top of the stack without removing it.
+    public int peek()
+    {
+        if (index == 0)
+        {
+            throw new IndexOutOfBoundsException();
+        }
+
+        return values[index - 1];
+    }
+
+    // put the value on the top of the stack.
+    public void push(int value)
+    {
+        values[index++] = value;
+
+        // grow when more than half of the array is in use
+        if (index > values.length / 2)
+        {
+            resize(values.length * 2);
+        }
+    }
+
+    // returns a string representation of the object instance.
+    @Override
+    public String toString()
+    {
+        if (isEmpty())
+        {
+            return "[]";
+        }
+
+        StringBuilder sb = new StringBuilder();
+        sb.append('[');
+
+        for (int i = 0; i < index - 1; i++)
+        {
+            sb
+                    .append(values[i])
+                    .append(", ");
+        }
+
+        sb
+                .append(values[index - 1]);
+
+        sb.append(']');
+        return sb.toString();
+    }
+
+    // returns an iterator that spans over the stack, from top to bottom.
+    public PrimitiveIterator.OfInt iterator()
+    {
+        return new IntStackIterator();
+    }
+
+    private class IntStackIterator implements PrimitiveIterator.OfInt
+    {
+        int stackPointer;
+
+        public IntStackIterator()
+        {
+            stackPointer = index;
+        }
+
+        // returns a bool specifying if the iterator has following element.
+        public boolean hasNext()
+        {
+            return stackPointer > 0;
+        }
+
+        // moves the iterator to the next value and returns it, unboxed.
+        public int nextInt()
+        {
+            return values[--stackPointer];
+        }
+
+        // warnings are given when `remove` is not overridden, throwing UnsupportedOperation exception instead.
+        public void remove()
+        {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    // test method
+    public static void main(String[] args)
+    {
+        IntStack s = new IntStack();
+
+        // check that `size` and `isEmpty` are correct at the initial state
+        int initial_size_result = s.size();
+
+        assert initial_size_result == 0 : initial_size_result;
+        assert s.isEmpty();
+
+        // after 1 push to the stack the `size` should be 1 and `isEmpty` should be false
+        s.push(42);
+
+        int push_size_result = s.size();
+        int peek_result = s.peek();
+
+        assert push_size_result == 1 : push_size_result;
+        assert peek_result == 42 : peek_result;
+        assert !s.isEmpty();
+
+        // popping the only value should bring the stack back to its initial state
+        int popped_result = s.pop();
+
+        assert popped_result == 42 : popped_result;
+        assert s.size() == 0 : s.size();
+        assert s.isEmpty();
+
+        // the `toString` function should list the values from bottom to top,
+        // pushing five values also forces the array to grow.
+        for (int i = 1; i <= 5; i++)
+        {
+            s.push(i);
+        }
+
+        String toString_result = s.toString();
+        assert toString_result.equals("[1, 2, 3, 4, 5]") : toString_result;
+
+        // iteration goes from top to bottom, same as `Stack<T>`
+        StringBuilder iterated = new StringBuilder();
+        PrimitiveIterator.OfInt iter = s.iterator();
+        while (iter.hasNext())
+        {
+            iterated.append(iter.nextInt());
+        }
+
+        assert iterated.toString().equals("54321") : iterated;
+
+        // case test
+        // push and pop a large amount of values to make sure growing and
+        // shrinking keeps the values intact.
+        while (!s.isEmpty())
+        {
+            s.pop();
+        }
+
+        int count = 1_000_000;
+        for (int i = 0; i < count; i++)
+        {
+            s.push(i);
+        }
+
+        for (int i = count - 1; i >= 0; i--)
+        {
+            int value = s.pop();
+            assert value == i : value;
+        }
+
+        assert s.isEmpty();
+        System.out.println(s);
+    }
+}
@@ -0,0 +1,1014 @@
+/*
+    Author: Andreas Hammarstrand
+    Written: 2026/10/18
+    Purpose:
+        JournaledQueue<T> is a CircularDoubleLinkedQueue<T> that survives a
+        restart of the process. Every enqueue and dequeue is appended as a
+        record to a journal before it is applied to the queue in memory, and
+        on startup the records are replayed to rebuild the queue.
+        The journal is a directory of segment files of a fixed size, each
+        mapped into memory, so appending a record is a few writes to memory;
+        when a segment is full the next one is created. Every segment starts
+        with the amount of enqueues and dequeues made before it, and since
+        the queue is FIFO, a segment whose enqueued elements have all been
+        dequeued is never needed again and is deleted as soon as the
+        dequeues that emptied it are forced to disk, while replay of the
+        segments after it only has to count the dequeues of elements that
+        were in deleted segments. A record carries a CRC32 of its content
+        and its length is written last, so a record torn by a crash is
+        found on replay and it and everything after it is dropped.
+        When the mapped records are forced to disk is decided by `Sync`:
+            ALWAYS:   every operation is on disk before it returns. Threads
+                      that commit at the same time share one force, the
+                      first waiting thread forces everything written so far
+                      and the others only wait for it (group commit).
+            BATCH:    the journal is forced every `syncEvery` operations,
+                      at most that many operations are lost in a crash.
+            INTERVAL: the journal is forced by the first operation that comes
+                      at least `syncEvery` milliseconds after the last force.
+            NEVER:    the operating system writes the pages when it wants,
+                      which still survives a crash of the process but not
+                      of the machine.
+        With every policy, a full segment is forced once when the journal
+        moves on to the next one.
+    Usage:
+        Create an instance with
+        `new JournaledQueue<T>(Path directory, Codec<T> codec)`, which uses
+        `Sync.ALWAYS`, or with
+        `new JournaledQueue<T>(Path directory, Codec<T> codec, Sync sync, long syncEvery, int segmentSize)`,
+        and use it as any other Queue<T>. Opening a directory that holds a
+        journal recovers the queue it describes. `sync()` forces the journal
+        at once and `close()` forces it and closes the queue, also done by
+        try-with-resources. Only one instance may use a directory at a time,
+        it is locked through a lock file until `close()`, and opening it
+        again meanwhile gives an `IOException`. The queue may not be changed
+        while it is iterated. Failing disk
+        I/O is reported as an `UncheckedIOException`. To run tests, run
+        static main function of the class.
+ */
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.zip.CRC32;
+
+public class JournaledQueue<T> implements Queue<T>, Closeable
+{
+    public enum Sync
+    {
+        ALWAYS,
+        BATCH,
+        INTERVAL,
+        NEVER
+    }
+
+    private static final int DEFAULT_SEGMENT_SIZE = 64 * 1024 * 1024;
+
+    // segment header: magic, enqueues before the segment, dequeues before
+    // the segment
+    private static final int MAGIC = 0x4A524E4C;
+    private static final int HEADER_SIZE = 4 + 8 + 8;
+
+    // record: length of the payload plus one, CRC32 of type and payload,
+    // type, payload. a length of 0 is where the records end.
+    private static final int RECORD_HEADER_SIZE = 4 + 4 + 1;
+    private static final byte ENQUEUE = 1;
+    private static final byte DEQUEUE = 2;
+
+    private static class Segment
+    {
+        final long id;
+        final Path path;
+
+        // the enqueues made before the segment and before the next one, all
+        // elements of the segment are dequeued once `end` elements are
+        long end;
+
+        Segment(long id, Path path)
+        {
+            this.id = id;
+            this.path = path;
+        }
+    }
+
+    // the encoded payload of the record being appended
+    private static class Scratch extends ByteArrayOutputStream
+    {
+        byte[] array()
+        {
+            return buf;
+        }
+    }
+
+    private final Path directory;
+    private final Codec<T> codec;
+    private final Sync sync;
+    private final long syncEvery;
+    private final int segmentSize;
+
+    private final CircularDoubleLinkedQueue<T> queue = new CircularDoubleLinkedQueue<T>();
+
+    // the segments from oldest to newest, records are appended to `active`,
+    // the mapping of the newest one
+    private final ArrayDeque<Segment> segments = new ArrayDeque<Segment>();
+    private MappedByteBuffer active;
+
+    // all enqueues and dequeues ever made, also those in deleted segments
+    private long enqueued;
+    private long dequeued;
+
+    // the dequeues known to be on disk, only segments emptied by them are
+    // deleted
+    private long forcedDequeued;
+
+    private final Scratch scratch = new Scratch();
+    private final DataOutputStream scratchOut = new DataOutputStream(scratch);
+    private final CRC32 crc = new CRC32();
+
+    // records appended, and the operations and time of the last force for
+    // `BATCH` and `INTERVAL`
+    private long appended;
+    private long unsynced;
+    private long lastSync = System.nanoTime();
+
+    // group commit for `ALWAYS`: the records known to be on disk, and if a
+    // thread is forcing right now
+    private final Object commitLock = new Object();
+    private long durable;
+    private boolean forcing;
+
+    // the lock on the directory, held until the queue is closed
+    private final FileChannel lockChannel;
+    private final FileLock lock;
+
+    private boolean closed;
+
+    public JournaledQueue(Path directory, Codec<T> codec) throws IOException
+    {
+        this(directory, codec, Sync.ALWAYS, 0, DEFAULT_SEGMENT_SIZE);
+    }
+
+    public JournaledQueue(Path directory, Codec<T> codec, Sync sync, long syncEvery, int segmentSize)
+            throws IOException
+    {
+        if (directory == null || codec == null || sync == null || syncEvery < 0 ||
+                segmentSize < HEADER_SIZE + RECORD_HEADER_SIZE)
+        {
+            throw new IllegalArgumentException();
+        }
+
+        this.directory = directory;
+        this.codec = codec;
+        this.sync = sync;
+        this.syncEvery = syncEvery;
+        this.segmentSize = segmentSize;
+
+        Files.createDirectories(directory);
+
+        lockChannel = FileChannel.open(directory.resolve("lock"), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE);
+
+        FileLock lock;
+        try
+        {
+            lock = lockChannel.tryLock();
+        }
+        catch (OverlappingFileLockException e)
+        {
+            // the lock is held by this process
+            lock = null;
+        }
+
+        if (lock == null)
+        {
+            lockChannel.close();
+            throw new IOException("journal is in use: " + directory);
+        }
+
+        this.lock = lock;
+
+        try
+        {
+            recover();
+        }
+        catch (IOException | RuntimeException e)
+        {
+            unlock();
+            throw e;
+        }
+    }
+
+    private void unlock() throws IOException
+    {
+        lock.release();
+        lockChannel.close();
+    }
+
+    private Path segmentPath(long id)
+    {
+        return directory.resolve(String.format("%016d.journal", id));
+    }
+
+    // maps all of the segment file at `path`
+    private static MappedByteBuffer map(Path path, long size, StandardOpenOption... options) throws IOException
+    {
+        try (FileChannel channel = FileChannel.open(path, options))
+        {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, size < 0 ? channel.size() : size);
+        }
+    }
+
+    // rebuilds the queue from the segments in the directory
+    private void recover() throws IOException
+    {
+        // the enqueues made before the oldest segment
+        long base = 0;
+
+        List<Path> paths = new ArrayList<Path>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*.journal"))
+        {
+            for (Path path : stream)
+            {
+                paths.add(path);
+            }
+        }
+
+        // the names are zero padded, so they sort as the ids do
+        Collections.sort(paths);
+
+        for (int i = 0; i < paths.size(); i++)
+        {
+            Path path = paths.get(i);
+            String name = path.getFileName().toString();
+            long id = Long.parseLong(name.substring(0, name.length() - ".journal".length()));
+
+            MappedByteBuffer buffer = map(path, -1, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            boolean last = i == paths.size() - 1;
+
+            // a crash while a segment was created can leave it without a
+            // header, it holds no records yet
+            if (last && (buffer.limit() < HEADER_SIZE || buffer.getInt(0) == 0))
+            {
+                Files.delete(path);
+                break;
+            }
+
+            if (buffer.limit() < HEADER_SIZE || buffer.getInt(0) != MAGIC)
+            {
+                throw new IOException("not a journal segment: " + path);
+            }
+
+            long firstEnqueue = buffer.getLong(4);
+            long firstDequeue = buffer.getLong(12);
+
+            if (segments.isEmpty())
+            {
+                base = firstEnqueue;
+                enqueued = firstEnqueue;
+                dequeued = firstDequeue;
+            }
+            else if (id != segments.peekLast().id + 1 || firstEnqueue != enqueued || firstDequeue != dequeued)
+            {
+                throw new IOException("journal segments do not follow each other: " + path);
+            }
+
+            if (!segments.isEmpty())
+            {
+                segments.peekLast().end = enqueued;
+            }
+
+            segments.add(new Segment(id, path));
+
+            int end = replay(buffer, base);
+            if (!last && end + 4 <= buffer.limit() && buffer.getInt(end) != 0)
+            {
+                throw new IOException("journal segment is corrupt: " + path);
+            }
+
+            active = buffer;
+            active.position(end);
+        }
+
+        if (segments.isEmpty())
+        {
+            createSegment(0);
+            return;
+        }
+
+        // the dequeues that emptied the deleted segments were on disk, if
+        // fewer are replayed the journal has lost them, and the elements
+        // they dequeued are gone all the same
+        dequeued = Math.max(dequeued, base);
+
+        // whatever follows the last whole record, such as a torn record, is
+        // cleared, so that it can not be mistaken for a record later
+        byte[] zeros = new byte[4096];
+        ByteBuffer rest = active.duplicate();
+        while (rest.hasRemaining())
+        {
+            rest.put(zeros, 0, Math.min(zeros.length, rest.remaining()));
+        }
+
+        active.force();
+        forced(dequeued);
+    }
+
+    // applies the whole records of the segment in `buffer` to the queue and
+    // returns where they end. dequeues of elements that were enqueued before
+    // `base` are only counted, those elements were in deleted segments.
+    private int replay(MappedByteBuffer buffer, long base) throws IOException
+    {
+        int position = HEADER_SIZE;
+        while (position + RECORD_HEADER_SIZE <= buffer.limit())
+        {
+            int length = buffer.getInt(position) - 1;
+            if (length < 0 || length > buffer.limit() - position - RECORD_HEADER_SIZE)
+            {
+                break;
+            }
+
+            byte type = buffer.get(position + 8);
+            byte[] payload = new byte[length];
+            ByteBuffer record = buffer.duplicate();
+            record.position(position + RECORD_HEADER_SIZE);
+            record.get(payload);
+
+            crc.reset();
+            crc.update(type);
+            crc.update(payload, 0, length);
+            if ((int)crc.getValue() != buffer.getInt(position + 4))
+            {
+                break;
+            }
+
+            if (type == ENQUEUE)
+            {
+                queue.enqueue(codec.decode(new DataInputStream(new ByteArrayInputStream(payload))));
+                enqueued++;
+            }
+            else if (type == DEQUEUE && length == 0)
+            {
+                if (dequeued >= base)
+                {
+                    if (queue.isEmpty())
+                    {
+                        throw new IOException("journal dequeues from an empty queue");
+                    }
+
+                    queue.dequeue();
+                }
+
+                dequeued++;
+            }
+            else
+            {
+                throw new IOException("unknown journal record");
+            }
+
+            position += RECORD_HEADER_SIZE + length;
+        }
+
+        return position;
+    }
+
+    // creates the segment `id`, which starts after everything done so far,
+    // and makes it the active one
+    private void createSegment(long id) throws IOException
+    {
+        Path path = segmentPath(id);
+        MappedByteBuffer buffer = map(path, segmentSize, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+
+        buffer.putLong(4, enqueued);
+        buffer.putLong(12, dequeued);
+        buffer.putInt(0, MAGIC);
+        buffer.position(HEADER_SIZE);
+
+        if (!segments.isEmpty())
+        {
+            segments.peekLast().end = enqueued;
+        }
+
+        segments.add(new Segment(id, path));
+        active = buffer;
+
+        if (sync != Sync.NEVER)
+        {
+            active.force();
+
+            // the new file is only sure to be found after a crash once the
+            // directory is on disk as well
+            try (FileChannel dir = FileChannel.open(directory, StandardOpenOption.READ))
+            {
+                dir.force(true);
+            }
+        }
+    }
+
+    // notes that the first `count` dequeues are on disk, and deletes the
+    // oldest segments while all of their elements are dequeued by them
+    private void forced(long count) throws IOException
+    {
+        forcedDequeued = Math.max(forcedDequeued, count);
+
+        while (segments.size() > 1 && segments.peekFirst().end <= forcedDequeued)
+        {
+            Files.delete(segments.pollFirst().path);
+        }
+    }
+
+    // appends a record with the `length` first bytes of `scratch` as payload
+    private void append(byte type, int length) throws IOException
+    {
+        if (active.remaining() < RECORD_HEADER_SIZE + length)
+        {
+            // the records of a full segment are on disk before it is left
+            active.force();
+            createSegment(segments.peekLast().id + 1);
+            forced(dequeued);
+        }
+
+        byte[] payload = scratch.array();
+        crc.reset();
+        crc.update(type);
+        crc.update(payload, 0, length);
+
+        int start = active.position();
+        active.position(start + 4);
+        active.putInt((int)crc.getValue());
+        active.put(type);
+        active.put(payload, 0, length);
+
+        // the length is written last, a record is not there before it is
+        active.putInt(start, length + 1);
+        appended++;
+    }
+
+    // forces the journal as `sync` asks after an append, and returns the
+    // record the caller has to wait for with `commit`, or 0.
+    private long afterAppend() throws IOException
+    {
+        switch (sync)
+        {
+            case ALWAYS:
+                return appended;
+            case BATCH:
+                if (++unsynced >= syncEvery)
+                {
+                    force();
+                }
+                break;
+            case INTERVAL:
+                if (System.nanoTime() - lastSync >= syncEvery * 1_000_000)
+                {
+                    force();
+                }
+                break;
+            default:
+                break;
+        }
+
+        return 0;
+    }
+
+    private void force() throws IOException
+    {
+        active.force();
+        unsynced = 0;
+        lastSync = System.nanoTime();
+        forced(dequeued);
+    }
+
+    // waits until record `ticket` is on disk. one waiting thread forces all
+    // records appended so far while the others wait for it.
+    private void commit(long ticket)
+    {
+        if (ticket == 0)
+        {
+            return;
+        }
+
+        boolean interrupted = false;
+        while (true)
+        {
+            synchronized (commitLock)
+            {
+                while (forcing && durable < ticket)
+                {
+                    try
+                    {
+                        commitLock.wait();
+                    }
+                    catch (InterruptedException e)
+                    {
+                        interrupted = true;
+                    }
+                }
+
+                if (durable >= ticket)
+                {
+                    break;
+                }
+
+                forcing = true;
+            }
+
+            // full segments were forced before they were left, so forcing
+            // the active one covers every record up to `target`
+            MappedByteBuffer buffer;
+            long target;
+            long targetDequeued;
+            synchronized (this)
+            {
+                buffer = active;
+                target = appended;
+                targetDequeued = dequeued;
+            }
+
+            boolean forced = false;
+            try
+            {
+                buffer.force();
+                forced = true;
+
+                synchronized (this)
+                {
+                    if (!closed)
+                    {
+                        forced(targetDequeued);
+                    }
+                }
+            }
+            catch (IOException e)
+            {
+                throw new UncheckedIOException(e);
+            }
+            finally
+            {
+                synchronized (commitLock)
+                {
+                    forcing = false;
+                    if (forced)
+                    {
+                        durable = Math.max(durable, target);
+                    }
+
+                    commitLock.notifyAll();
+                }
+            }
+        }
+
+        if (interrupted)
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void ensureOpen()
+    {
+        if (closed)
+        {
+            throw new IllegalStateException("queue is closed");
+        }
+    }
+
+    // puts the item at the end of the queue.
+    public void enqueue(T item)
+    {
+        if (item == null)
+        {
+            throw new IllegalArgumentException();
+        }
+
+        long ticket;
+        synchronized (this)
+        {
+            ensureOpen();
+
+            try
+            {
+                scratch.reset();
+                codec.encode(item, scratchOut);
+                scratchOut.flush();
+
+                int length = scratch.size();
+                if (HEADER_SIZE + RECORD_HEADER_SIZE + length > segmentSize)
+                {
+                    throw new IllegalArgumentException("item does not fit in a segment");
+                }
+
+                append(ENQUEUE, length);
+                queue.enqueue(item);
+                enqueued++;
+                ticket = afterAppend();
+            }
+            catch (IOException e)
+            {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        commit(ticket);
+    }
+
+    // returns and removes the value from the front of the queue.
+    public T dequeue()
+    {
+        T value;
+        long ticket;
+        synchronized (this)
+        {
+            ensureOpen();
+
+            if (queue.isEmpty())
+            {
+                throw new IndexOutOfBoundsException();
+            }
+
+            try
+            {
+                append(DEQUEUE, 0);
+                value = queue.dequeue();
+                dequeued++;
+                ticket = afterAppend();
+            }
+            catch (IOException e)
+            {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        commit(ticket);
+        return value;
+    }
+
+    // returns amount of elements in the queue.
+    public synchronized int size()
+    {
+        return queue.size();
+    }
+
+    // returns true if the queue is empty, otherwise false.
+    public synchronized boolean isEmpty()
+    {
+        return queue.isEmpty();
+    }
+
+    // returns the amount of segment files the journal currently uses.
+    public synchronized int segments()
+    {
+        return segments.size();
+    }
+
+    // forces every operation made so far to disk.
+    public synchronized void sync()
+    {
+        ensureOpen();
+
+        try
+        {
+            force();
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // forces the journal to disk and releases the directory, the queue can
+    // not be used afterwards.
+    @Override
+    public synchronized void close() throws IOException
+    {
+        if (!closed)
+        {
+            closed = true;
+
+            try
+            {
+                force();
+            }
+            finally
+            {
+                unlock();
+            }
+        }
+    }
+
+    // releases the directory without forcing the journal, as the end of a
+    // crashed process does. only used by the tests.
+    private synchronized void crash() throws IOException
+    {
+        if (!closed)
+        {
+            closed = true;
+            unlock();
+        }
+    }
+
+    // returns a string representation of the queue instance.
+    @Override
+    public synchronized String toString()
+    {
+        return queue.toString();
+    }
+
+    // returns an iterator that spans over the queue.
+    public Iterator<T> iterator()
+    {
+        return queue.iterator();
+    }
+
+    // deletes `directory` and the segment files in it
+    private static void deleteJournal(Path directory) throws IOException
+    {
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory))
+        {
+            for (Path path : stream)
+            {
+                Files.delete(path);
+            }
+        }
+
+        Files.delete(directory);
+    }
+
+    // test method
+    public static void main(String[] args) throws Exception
+    {
+        Path directory = Files.createTempDirectory("journal");
+
+        try
+        {
+            // the queue is the same after it is closed and opened again
+            try (JournaledQueue<String> q = new JournaledQueue<String>(directory, Codec.STRING))
+            {
+                q.enqueue("a");
+                q.enqueue("b");
+                q.enqueue("c");
+
+                String dequeue_result = q.dequeue();
+                assert dequeue_result.equals("a") : dequeue_result;
+            }
+
+            // a crash is an instance that is never closed, the records are
+            // in the mapped segment all the same
+            JournaledQueue<String> q = new JournaledQueue<String>(directory, Codec.STRING);
+            String reopened_result = q.toString();
+            assert reopened_result.equals("[b, c]") : reopened_result;
+
+            // the directory is locked while it is in use
+            boolean locked = false;
+            try
+            {
+                new JournaledQueue<String>(directory, Codec.STRING);
+            }
+            catch (IOException e)
+            {
+                locked = true;
+            }
+
+            assert locked;
+
+            q.enqueue("d");
+            q.crash();
+
+            q = new JournaledQueue<String>(directory, Codec.STRING);
+            String crashed_result = q.toString();
+            assert crashed_result.equals("[b, c, d]") : crashed_result;
+
+            // a record torn by a crash is dropped with what follows it
+            int torn = q.active.position();
+            q.enqueue("torn");
+            q.active.put(torn + RECORD_HEADER_SIZE + 1, (byte)'x');
+            q.crash();
+
+            q = new JournaledQueue<String>(directory, Codec.STRING);
+            String torn_result = q.toString();
+            assert torn_result.equals("[b, c, d]") : torn_result;
+
+            // appends go where the torn record was, and long strings fit
+            StringBuilder sb = new StringBuilder();
+            for (int i = 0; i < 100_000; i++)
+            {
+                sb.append((char)('a' + i % 26));
+            }
+
+            q.enqueue("e");
+            q.enqueue(sb.toString());
+            q.close();
+
+            try (JournaledQueue<String> reopened = new JournaledQueue<String>(directory, Codec.STRING))
+            {
+                assert reopened.size() == 5 : reopened.size();
+                for (String expected : new String[] { "b", "c", "d", "e", sb.toString() })
+                {
+                    String appended_result = reopened.dequeue();
+                    assert appended_result.equals(expected) : appended_result.length();
+                }
+
+                boolean threw = false;
+                try
+                {
+                    reopened.dequeue();
+                }
+                catch (IndexOutOfBoundsException e)
+                {
+                    threw = true;
+                }
+
+                assert threw;
+            }
+
+            deleteJournal(directory);
+
+            // a segment is only deleted once the dequeues that emptied it
+            // are on disk. 256 byte segments hold 13 enqueues of a Long, so
+            // segment 0 holds 0..12 and segment 1 holds 13..16 and the
+            // dequeues. the last three dequeues are lost in a crash of the
+            // machine, which must not lose segment 0 as well.
+            JournaledQueue<Long> lost = new JournaledQueue<Long>(directory, Codec.LONG, Sync.NEVER, 0, 256);
+            for (long i = 0; i < 17; i++)
+            {
+                lost.enqueue(i);
+            }
+
+            for (long i = 0; i < 13; i++)
+            {
+                lost.dequeue();
+            }
+
+            assert lost.segments() == 2 : lost.segments();
+
+            int end = lost.active.position();
+            for (int i = end - 3 * RECORD_HEADER_SIZE; i < end; i++)
+            {
+                lost.active.put(i, (byte)0);
+            }
+
+            lost.crash();
+
+            lost = new JournaledQueue<Long>(directory, Codec.LONG, Sync.NEVER, 0, 256);
+            assert lost.size() == 7 : lost.size();
+            long lost_result = lost.dequeue();
+            assert lost_result == 10 : lost_result;
+            lost.close();
+
+            lost = new JournaledQueue<Long>(directory, Codec.LONG, Sync.NEVER, 0, 256);
+            assert lost.size() == 6 : lost.size();
+            lost_result = lost.dequeue();
+            assert lost_result == 11 : lost_result;
+            lost_result = lost.dequeue();
+            assert lost_result == 12 : lost_result;
+
+            // segment 0 goes once the dequeue of 12 is forced
+            assert lost.segments() == 2 : lost.segments();
+            lost.sync();
+            assert lost.segments() == 1 : lost.segments();
+            lost.close();
+
+            lost = new JournaledQueue<Long>(directory, Codec.LONG, Sync.NEVER, 0, 256);
+            String compacted_result = lost.toString();
+            assert compacted_result.equals("[13, 14, 15, 16]") : compacted_result;
+            lost.close();
+
+            deleteJournal(directory);
+
+            // case test
+            // random operations on tiny segments, reopened now and then, must
+            // match CircularDoubleLinkedQueue<T>, and the segments of
+            // dequeued elements must be deleted.
+            Random random = new Random(13);
+            CircularDoubleLinkedQueue<Long> reference = new CircularDoubleLinkedQueue<Long>();
+            JournaledQueue<Long> journaled = new JournaledQueue<Long>(directory, Codec.LONG, Sync.NEVER, 0, 4096);
+
+            for (long n = 0; n < 200_000; n++)
+            {
+                // the queue grows and shrinks in long waves
+                boolean growing = (n / 20_000) % 2 == 0;
+                if (reference.isEmpty() || random.nextInt(10) < (growing ? 7 : 3))
+                {
+                    reference.enqueue(n);
+                    journaled.enqueue(n);
+                }
+                else
+                {
+                    long reference_result = reference.dequeue();
+                    long journaled_result = journaled.dequeue();
+                    assert reference_result == journaled_result : reference_result + " " + journaled_result;
+                }
+
+                if (n % 25_000 == 0)
+                {
+                    journaled.close();
+                    journaled = new JournaledQueue<Long>(directory, Codec.LONG, Sync.NEVER, 0, 4096);
+                    assert journaled.size() == reference.size() : journaled.size();
+                }
+            }
+
+            // 4096 byte segments hold about 170 records, the segments left
+            // are those holding elements still in the queue and the records
+            // after them
+            int segments_result = journaled.segments();
+            assert segments_result < 200_000 / 170 / 2 : segments_result;
+
+            while (!reference.isEmpty())
+            {
+                long reference_result = reference.dequeue();
+                long journaled_result = journaled.dequeue();
+                assert reference_result == journaled_result : reference_result + " " + journaled_result;
+            }
+
+            journaled.close();
+            journaled = new JournaledQueue<Long>(directory, Codec.LONG, Sync.NEVER, 0, 4096);
+            assert journaled.isEmpty();
+            assert journaled.segments() <= 2 : journaled.segments();
+            journaled.close();
+            deleteJournal(directory);
+
+            // throughput with group commit, several threads committing at
+            // once share the forces of the journal
+            int threads = 4;
+            int perThread = 5_000;
+            final JournaledQueue<Long> shared = new JournaledQueue<Long>(directory, Codec.LONG);
+            Thread[] workers = new Thread[threads];
+            for (int t = 0; t < threads; t++)
+            {
+                final long base = (long)t * perThread;
+                workers[t] = new Thread(() ->
+                {
+                    for (long i = 0; i < perThread; i++)
+                    {
+                        shared.enqueue(base + i);
+                    }
+                });
+            }
+
+            long start = System.nanoTime();
+            for (Thread worker : workers)
+            {
+                worker.start();
+            }
+
+            for (Thread worker : workers)
+            {
+                worker.join();
+            }
+
+            long elapsed = System.nanoTime() - start;
+            shared.close();
+
+            JournaledQueue<Long> reopened = new JournaledQueue<Long>(directory, Codec.LONG);
+            assert reopened.size() == threads * perThread : reopened.size();
+            reopened.close();
+            deleteJournal(directory);
+
+            System.out.println(String.format("%d durable enqueues from %d threads at %.0f ops/s",
+                    threads * perThread, threads, threads * perThread * 1e9 / elapsed));
+
+            // throughput with a force every 1000 operations
+            JournaledQueue<Long> batched = new JournaledQueue<Long>(directory, Codec.LONG, Sync.BATCH, 1000,
+                    DEFAULT_SEGMENT_SIZE);
+            int operations = 2_000_000;
+
+            start = System.nanoTime();
+            for (long i = 0; i < operations / 2; i++)
+            {
+                batched.enqueue(i);
+                batched.dequeue();
+            }
+
+            elapsed = System.nanoTime() - start;
+            batched.close();
+
+            System.out.println(String.format("%d operations, forced every 1000, at %.0f ops/s",
+                    operations, operations * 1e9 / elapsed));
+        }
+        finally
+        {
+            if (Files.exists(directory))
+            {
+                deleteJournal(directory);
+            }
+        }
+    }
+}
@@ -0,0 +1,478 @@
+/*
+    Author: Andreas Hammarstrand
+    Written: 2026/10/18
+    Purpose:
+        LazyGeneralizedQueue<T> has the functionality of GeneralizedQueue<T>
+        for queues where many values are cancelled before they are dequeued.
+        Instead of unlinking a value right away, removal replaces it with a
+        tombstone in O(1). `dequeue` and iteration skip tombstones, and once
+        the share of tombstones passes the compaction ratio the live values
+        are slid together in one pass over the array.
+    Usage:
+        Create an instance with `new LazyGeneralizedQueue<T>()`, or with
+        `new LazyGeneralizedQueue<T>(double compactionRatio)` to choose how
+        large a share of the array may be tombstones before it is compacted
+        (0.5 by default). `long enqueue(T item)` adds an item and returns a
+        handle to it, `boolean remove(long handle)` cancels that item in
+        O(1) (O(log n) after a compaction has moved it). `removeAt(int index)`
+        removes by 1-based index like GeneralizedQueue; it is O(1) as long
+        as there are no tombstones in front of the index and otherwise scans
+        the array without relinking anything. To run tests, run static main
+        function of the class.
+ */
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+public class LazyGeneralizedQueue<T> implements Iterable<T>
+{
+    private static final int MIN_CAPACITY = 8;
+
+    // tombstones are only compacted once there are at least this many, so
+    // that small queues do not compact on every removal.
+    private static final int MIN_COMPACTION = 16;
+
+    // marks a removed value in `values`
+    private static final Object TOMBSTONE = new Object();
+
+    // the entries are kept in `values[head..tail)`, `handles` holds the
+    // handle of every entry. handles only grow, so `handles[head..tail)` is
+    // sorted even after compactions.
+    private Object[] values;
+    private long[] handles;
+    private int head, tail;
+
+    // `size` is the amount of live values, `tombstones` the amount of
+    // removed values still between `head` and `tail`.
+    private int size;
+    private int tombstones;
+
+    private long nextHandle;
+    private final double compactionRatio;
+
+    public LazyGeneralizedQueue()
+    {
+        this(0.5);
+    }
+
+    public LazyGeneralizedQueue(double compactionRatio)
+    {
+        if (!(compactionRatio > 0 && compactionRatio < 1))
+        {
+            throw new IllegalArgumentException();
+        }
+
+        this.compactionRatio = compactionRatio;
+        values = new Object[MIN_CAPACITY];
+        handles = new long[MIN_CAPACITY];
+    }
+
+    // returns amount of elements in the queue.
+    public int size()
+    {
+        return size;
+    }
+
+    // returns true if the queue is empty, otherwise false.
+    public boolean isEmpty()
+    {
+        return size == 0;
+    }
+
+    // returns the amount of tombstones waiting to be compacted away.
+    public int tombstones()
+    {
+        return tombstones;
+    }
+
+    // moves the live values to the start of an array of `newLength`,
+    // dropping every tombstone.
+    private void compact(int newLength)
+    {
+        Object[] newValues = newLength == values.length ? values : new Object[newLength];
+        long[] newHandles = newLength == handles.length ? handles : new long[newLength];
+
+        // copying in place is safe since `to` never passes `from`
+        int to = 0;
+        for (int from = head; from < tail; from++)
+        {
+            if (values[from] != TOMBSTONE)
+            {
+                newValues[to] = values[from];
+                newHandles[to] = handles[from];
+                to++;
+            }
+        }
+
+        // when compacting in place, clear what is left behind the live
+        // values so the array does not keep them alive
+        if (newValues == values)
+        {
+            for (int i = to; i < tail; i++)
+            {
+                values[i] = null;
+            }
+        }
+
+        values = newValues;
+        handles = newHandles;
+        head = 0;
+        tail = to;
+        tombstones = 0;
+    }
+
+    // compacts if the tombstones have passed the compaction ratio
+    private void compactIfNeeded()
+    {
+        if (tombstones >= MIN_COMPACTION && tombstones > compactionRatio * (tail - head))
+        {
+            compact(values.length);
+        }
+    }
+
+    // drops tombstones at either end, they can go without compaction.
+    private void trimEnds()
+    {
+        while (head < tail && values[head] == TOMBSTONE)
+        {
+            values[head++] = null;
+            tombstones--;
+        }
+
+        while (tail > head && values[tail - 1] == TOMBSTONE)
+        {
+            values[--tail] = null;
+            tombstones--;
+        }
+
+        if (head == tail)
+        {
+            head = tail = 0;
+        }
+    }
+
+    // puts the item at the end of the queue and returns a handle to it.
+    public long enqueue(T item)
+    {
+        if (tail == values.length)
+        {
+            // make room by dropping what is in front of `head` and the
+            // tombstones, and grow if that does not free up a quarter
+            int newLength = values.length;
+            if (size >= values.length * 3 / 4)
+            {
+                newLength *= 2;
+            }
+
+            compact(newLength);
+        }
+
+        long handle = nextHandle++;
+        values[tail] = item;
+        handles[tail] = handle;
+        tail++;
+        size++;
+
+        return handle;
+    }
+
+    // returns and removes the value from the front of the queue.
+    public T dequeue()
+    {
+        if (size == 0)
+        {
+            throw new IndexOutOfBoundsException();
+        }
+
+        // `head` is always live, `trimEnds` drops tombstones in front of it
+        T value = (T)values[head];
+        values[head++] = null;
+        size--;
+
+        trimEnds();
+
+        if (values.length > MIN_CAPACITY && size < values.length / 4)
+        {
+            compact(values.length / 2);
+        }
+
+        return value;
+    }
+
+    // returns the position in the array of the entry with `handle`, or -1
+    // if it has already left the queue.
+    private int slotOf(long handle)
+    {
+        if (head == tail || handle < handles[head] || handle > handles[tail - 1])
+        {
+            return -1;
+        }
+
+        // until a compaction moves entries, handles are consecutive
+        long offset = handle - handles[head];
+        if (offset < tail - head && handles[head + (int)offset] == handle)
+        {
+            return head + (int)offset;
+        }
+
+        // otherwise find it by binary search, `handles` is sorted
+        int low = head, high = tail - 1;
+        while (low <= high)
+        {
+            int middle = (low + high) >>> 1;
+            if (handles[middle] < handle)
+            {
+                low = middle + 1;
+            }
+            else if (handles[middle] > handle)
+            {
+                high = middle - 1;
+            }
+            else
+            {
+                return middle;
+            }
+        }
+
+        return -1;
+    }
+
+    // replaces the live value at `slot` with a tombstone and returns it.
+    private T tombstone(int slot)
+    {
+        T value = (T)values[slot];
+        values[slot] = TOMBSTONE;
+        tombstones++;
+        size--;
+
+        trimEnds();
+        compactIfNeeded();
+        return value;
+    }
+
+    // removes the item that `enqueue` returned `handle` for, returns false
+    // if it has already been dequeued or removed.
+    public boolean remove(long handle)
+    {
+        int slot = slotOf(handle);
+        if (slot < 0 || values[slot] == TOMBSTONE)
+        {
+            return false;
+        }
+
+        tombstone(slot);
+        return true;
+    }
+
+    // index is 1-based
+    // removes and returns the value at the specified index.
+    public T removeAt(int index)
+    {
+        // we cannot remove or return an element that is not part of the list
+        if (index < 1 || index > size)
+        {
+            throw new IndexOutOfBoundsException();
+        }
+
+        // without tombstones the index maps straight onto the array
+        if (tombstones == 0)
+        {
+            return tombstone(head + index - 1);
+        }
+
+        // otherwise count live values, from the nearer end
+        int slot;
+        if (index <= size / 2)
+        {
+            slot = head - 1;
+            for (int live = 0; live < index; )
+            {
+                if (values[++slot] != TOMBSTONE)
+                {
+                    live++;
+                }
+            }
+        }
+        else
+        {
+            slot = tail;
+            for (int live = size - index + 1; live > 0; )
+            {
+                if (values[--slot] != TOMBSTONE)
+                {
+                    live--;
+                }
+            }
+        }
+
+        return tombstone(slot);
+    }
+
+    // returns a string representation of the queue instance.
+    @Override
+    public String toString()
+    {
+        // using a standard case to return a standard value
+        if (isEmpty())
+        {
+            return "[]";
+        }
+
+        StringBuilder sb = new StringBuilder();
+        sb.append('[');
+
+        Iterator<T> iter = iterator();
+        sb.append(iter.next().toString());
+        while (iter.hasNext())
+        {
+            sb
+                    .append(", ")
+                    .append(iter.next().toString());
+        }
+
+        sb.append(']');
+        return sb.toString();
+    }
+
+    // returns an iterator that spans over the queue, skipping tombstones.
+    public Iterator<T> iterator()
+    {
+        return new LazyQueueIterator();
+    }
+
+    private class LazyQueueIterator implements Iterator<T>
+    {
+        int slot = head;
+
+        // returns a bool specifying if the iterator has following element.
+        public boolean hasNext()
+        {
+            while (slot < tail && values[slot] == TOMBSTONE)
+            {
+                slot++;
+            }
+
+            return slot < tail;
+        }
+
+        // moves the iterator to the next value and returns it.
+        public T next()
+        {
+            if (!hasNext())
+            {
+                throw new NoSuchElementException();
+            }
+
+            return (T)values[slot++];
+        }
+
+        // warnings are given when `remove` is not overridden,
+        // throwing UnsupportedOperation exception instead.
+        public void remove()
+        {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    // test method
+    public static void main(String[] args)
+    {
+        LazyGeneralizedQueue<Character> q = new LazyGeneralizedQueue<Character>();
+
+        // testing removal of one value
+        q.enqueue('a');
+        char removeAt_result = q.removeAt(1);
+
+        assert removeAt_result == 'a' : removeAt_result;
+        assert q.isEmpty();
+
+        // removing by handle leaves a tombstone that dequeue skips
+        long a = q.enqueue('a');
+        long b = q.enqueue('b');
+        long c = q.enqueue('c');
+
+        boolean remove_result = q.remove(b);
+        boolean remove_again_result = q.remove(b);
+        int tombstones_result = q.tombstones();
+
+        assert remove_result;
+        assert !remove_again_result;
+        assert tombstones_result == 1 : tombstones_result;
+        assert q.toString().equals("[a, c]") : q;
+
+        char first_dequeue = q.dequeue();
+        char second_dequeue = q.dequeue();
+
+        assert first_dequeue == 'a' : first_dequeue;
+        assert second_dequeue == 'c' : second_dequeue;
+        assert q.isEmpty();
+        assert !q.remove(a);
+        assert !q.remove(c);
+
+        // the same case as for GeneralizedQueue: a misspelt word
+        for (char ch : "Hellloip".toCharArray())
+        {
+            q.enqueue(ch);
+        }
+
+        char extra_l = q.removeAt(5);
+        char i = q.removeAt(6);
+        char p = q.removeAt(6);
+
+        assert extra_l == 'l' : extra_l;
+        assert i == 'i' : i;
+        assert p == 'p' : p;
+        assert q.toString().equals("[H, e, l, l, o]") : q;
+
+        while (!q.isEmpty())
+        {
+            q.dequeue();
+        }
+
+        // case test
+        // cancel most of a large queue by handle, the tombstones are
+        // compacted away and the handles that are left still work.
+        LazyGeneralizedQueue<Integer> jobs = new LazyGeneralizedQueue<Integer>(0.25);
+        int count = 100_000;
+        long[] jobHandles = new long[count];
+        for (int n = 0; n < count; n++)
+        {
+            jobHandles[n] = jobs.enqueue(n);
+        }
+
+        for (int n = 0; n < count; n++)
+        {
+            if (n % 10 != 0)
+            {
+                boolean cancelled = jobs.remove(jobHandles[n]);
+                assert cancelled : n;
+            }
+        }
+
+        int jobs_size_result = jobs.size();
+        assert jobs_size_result == count / 10 : jobs_size_result;
+        assert jobs.tombstones() < count / 10 : jobs.tombstones();
+
+        // after compaction removal by handle and by index still line up
+        boolean cancel_result = jobs.remove(jobHandles[50]);
+        int removeAt_after_compaction = jobs.removeAt(5);
+
+        assert cancel_result;
+        assert removeAt_after_compaction == 40 : removeAt_after_compaction;
+
+        int expected = 0;
+        while (!jobs.isEmpty())
+        {
+            int value = jobs.dequeue();
+            while (expected == 40 || expected == 50)
+            {
+                expected += 10;
+            }
+
+            assert value == expected : value;
+            expected += 10;
+        }
+
+        System.out.println(q);
+    }
+}
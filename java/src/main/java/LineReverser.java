@@ -0,0 +1,259 @@
+/*
+    Author: Andreas Hammarstrand
+    Written: 2026/10/18
+    Purpose:
+        LineReverser reverses every line of its input, as the recursive and
+        iterative functions of RecursiveAndIterativeReverse do for a single
+        line, but without reading one character at a time, recursing per
+        character or boxing characters. The input is read as UTF-8 bytes
+        into one buffer that is reused for the whole input, every complete
+        line in the buffer is reversed in place and the buffer is written
+        out in one call. The buffer only grows when a line does not fit in
+        it, so lines of any length can be reversed.
+        A line is reversed by reversing its bytes, which puts the bytes of
+        every multi-byte character in the wrong order, and then reversing
+        the bytes of each such character back. Characters outside of the
+        Basic Multilingual Plane, which are surrogate pairs in Java, are
+        four byte characters in UTF-8 and so stay whole. A '\r' before the
+        '\n' stays at the end of the line.
+    Usage:
+        Create an instance with `new LineReverser()` and call
+        `run(ReadableByteChannel in, WritableByteChannel out)`. `lines()` and
+        `bytes()` tell how much has been reversed.
+        RecursiveAndIterativeReverse runs it on stdin with `--stream`. To run
+        tests, run static main function of the class.
+ */
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+
+public class LineReverser
+{
+    private static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+    private ByteBuffer buffer;
+
+    private long lines;
+    private long bytes;
+
+    public LineReverser()
+    {
+        this(DEFAULT_BUFFER_SIZE);
+    }
+
+    public LineReverser(int bufferSize)
+    {
+        if (bufferSize < 1)
+        {
+            throw new IllegalArgumentException();
+        }
+
+        buffer = ByteBuffer.allocate(bufferSize);
+    }
+
+    // returns the amount of lines reversed so far.
+    public long lines()
+    {
+        return lines;
+    }
+
+    // returns the amount of bytes read so far.
+    public long bytes()
+    {
+        return bytes;
+    }
+
+    private static void swap(byte[] a, int from, int to)
+    {
+        // reverses `a[from..to)`
+        for (int i = from, j = to - 1; i < j; i++, j--)
+        {
+            byte b = a[i];
+            a[i] = a[j];
+            a[j] = b;
+        }
+    }
+
+    private static boolean isContinuation(byte b)
+    {
+        return (b & 0xC0) == 0x80;
+    }
+
+    // reverses the characters of the UTF-8 text in `a[from..to)` in place.
+    static void reverseLine(byte[] a, int from, int to)
+    {
+        swap(a, from, to);
+
+        // the continuation bytes of a character now come before its first
+        // byte, each such run is turned around again. continuation bytes
+        // without a first byte are not valid UTF-8 and are left as they are.
+        int i = from;
+        while (i < to)
+        {
+            if (!isContinuation(a[i]))
+            {
+                i++;
+                continue;
+            }
+
+            int start = i;
+            while (i < to && isContinuation(a[i]))
+            {
+                i++;
+            }
+
+            if (i < to && (a[i] & 0xC0) == 0xC0)
+            {
+                swap(a, start, i + 1);
+                i++;
+            }
+        }
+    }
+
+    // reverses every line that can be read from `in` and writes them to
+    // `out`. a last line without a '\n' is reversed as well.
+    public void run(ReadableByteChannel in, WritableByteChannel out) throws IOException
+    {
+        buffer.clear();
+        boolean more = true;
+
+        // `scanned` is where the search for the next '\n' continues
+        int scanned = 0;
+
+        while (more)
+        {
+            int read = in.read(buffer);
+            if (read < 0)
+            {
+                more = false;
+            }
+            else
+            {
+                bytes += read;
+            }
+
+            byte[] array = buffer.array();
+            int end = buffer.position();
+            int lineStart = 0;
+
+            for (int i = scanned; i < end; i++)
+            {
+                if (array[i] == '\n')
+                {
+                    int lineEnd = i > lineStart && array[i - 1] == '\r' ? i - 1 : i;
+                    reverseLine(array, lineStart, lineEnd);
+                    lines++;
+                    lineStart = i + 1;
+                }
+            }
+
+            if (!more && lineStart < end)
+            {
+                reverseLine(array, lineStart, end);
+                lines++;
+                lineStart = end;
+            }
+
+            // every complete line is written at once
+            if (lineStart > 0)
+            {
+                ByteBuffer complete = ByteBuffer.wrap(array, 0, lineStart);
+                while (complete.hasRemaining())
+                {
+                    out.write(complete);
+                }
+            }
+
+            // the start of the next line is moved to the front, and the
+            // buffer grows if that line fills it
+            buffer.limit(end).position(lineStart);
+            buffer.compact();
+            scanned = buffer.position();
+
+            if (!buffer.hasRemaining())
+            {
+                ByteBuffer bigger = ByteBuffer.allocate(buffer.capacity() * 2);
+                buffer.flip();
+                bigger.put(buffer);
+                buffer = bigger;
+            }
+        }
+    }
+
+    // returns the reversed lines of `input`
+    private static String reverse(String input, int bufferSize) throws IOException
+    {
+        LineReverser reverser = new LineReverser(bufferSize);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        reverser.run(Channels.newChannel(new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8))),
+                Channels.newChannel(out));
+
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    // test method
+    public static void main(String[] args) throws IOException
+    {
+        String simple_result = reverse("hello\nworld\n", 64);
+        assert simple_result.equals("olleh\ndlrow\n") : simple_result;
+
+        // the last line does not need a '\n', and '\r' stays at the end
+        String crlf_result = reverse("ab\r\ncd", 64);
+        assert crlf_result.equals("ba\r\ndc") : crlf_result;
+
+        // two, three and four byte characters, the last a surrogate pair in
+        // Java, keep their bytes in order
+        String unicode = "a\u00E9\u20AC\uD83D\uDE00z";
+        String unicode_result = reverse(unicode + "\n", 64);
+        String unicode_expected = new StringBuilder(unicode).reverse().toString() + "\n";
+        assert unicode_result.equals(unicode_expected) : unicode_result;
+
+        // a tiny buffer has to grow for every line longer than it
+        String grown_result = reverse("abcdefghij\nkl\nmnopqrstuvwxyz\n", 4);
+        assert grown_result.equals("jihgfedcba\nlk\nzyxwvutsrqponm\n") : grown_result;
+
+        // case test
+        // one very long line, deeper than the recursive function could go,
+        // and many short lines; both compared with StringBuilder.reverse,
+        // which also keeps surrogate pairs together.
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 1_000_000; i++)
+        {
+            sb.append(i % 7 == 0 ? "\uD83D\uDE00" : i % 5 == 0 ? "\u00F6" : "x");
+        }
+
+        String long_result = reverse(sb + "\n", 1024);
+        String long_expected = sb.reverse().toString() + "\n";
+        assert long_result.equals(long_expected);
+
+        StringBuilder many = new StringBuilder();
+        StringBuilder many_expected = new StringBuilder();
+        for (int i = 0; i < 1_000_000; i++)
+        {
+            String line = "line " + i + " \u013A\u00EF\u00F1\u00EA";
+            many.append(line).append('\n');
+            many_expected.append(new StringBuilder(line).reverse()).append('\n');
+        }
+
+        byte[] input = many.toString().getBytes(StandardCharsets.UTF_8);
+        LineReverser reverser = new LineReverser();
+        ByteArrayOutputStream out = new ByteArrayOutputStream(input.length);
+
+        long start = System.nanoTime();
+        reverser.run(Channels.newChannel(new ByteArrayInputStream(input)), Channels.newChannel(out));
+        long elapsed = System.nanoTime() - start;
+
+        String many_result = new String(out.toByteArray(), StandardCharsets.UTF_8);
+        assert many_result.equals(many_expected.toString());
+        assert reverser.lines() == 1_000_000 : reverser.lines();
+
+        System.out.println(String.format("%d lines reversed at %.0f lines/s", reverser.lines(),
+                reverser.lines() * 1e9 / elapsed));
+    }
+}
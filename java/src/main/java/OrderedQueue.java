@@ -1,7 +1,7 @@
 /*
     Author: Andreas Hammarstrand
     Written: 2020/09/04
-    Updated: 2020/09/06
+    Updated: 2026/10/18
     Purpose:
         OrderedQueue is an Integer queue, based on circular double linked nodes
         and implements an ordered enqueue algorithm. Integers are enqueued in
@@ -10,6 +10,8 @@
         Create a new instance with `new OrderedQueue()`. Use
         `void enqueue(Integer item) to add an item to the queue and
         `Integer dequeue()` to remove an item from the queue.
+        See HeapOrderedQueue<T> for a heap-backed queue with the same
+        ordering and O(log n) enqueue.
  */
 
 public class OrderedQueue extends CircularDoubleLinkedQueue<Integer>
@@ -19,6 +21,12 @@ public class OrderedQueue extends CircularDoubleLinkedQueue<Integer>
         super();
     }
 
+    // creates a queue that keeps up to `poolCapacity` removed nodes for reuse.
+    public OrderedQueue(int poolCapacity)
+    {
+        super(poolCapacity);
+    }
+
     // puts the item after an item in the queue with less value or first.
     @Override
     public void enqueue(Integer item)
@@ -26,9 +34,8 @@ public class OrderedQueue extends CircularDoubleLinkedQueue<Integer>
         // increment as we are adding values to the queue
         setSize(size() + 1);
 
-        // create node
-        Node newNode = new Node();
-        newNode.value = item;
+        // create node, reusing a pooled one when recycling is turned on
+        Node newNode = newNode(item);
 
         // special procedure for initial/empty state
         if (first() == null)
@@ -47,6 +54,13 @@ public class OrderedQueue extends CircularDoubleLinkedQueue<Integer>
             current = current.next;
         }
 
+        // the loop stops at `last` without comparing it, an item bigger than
+        // `last` belongs after it, which in a circle is before `first`.
+        if (current == last() && item.compareTo(current.value) > 0)
+        {
+            current = first();
+        }
+
         // update all links for the new node, its to-be-previous and to-be-next nodes
         Node front = current;
         Node back = current.previous;
@@ -117,5 +131,16 @@ public class OrderedQueue extends CircularDoubleLinkedQueue<Integer>
             assert third_dequeue == 3 : third_dequeue;
             System.out.println(oq);
         }
+
+        // tests that a value bigger than all others goes last
+        {
+            oq.enqueue(1);
+            oq.enqueue(3);
+            oq.enqueue(5);
+
+            String biggest_last_toString = oq.toString();
+            assert biggest_last_toString.equals("[1, 3, 5]") : biggest_last_toString;
+            System.out.println(oq);
+        }
     }
 }
@@ -0,0 +1,264 @@
+/*
+    Author: Andreas Hammarstrand
+    Written: 2026/10/18
+    Purpose:
+        ParallelParenthesesValidator gives the same answer as
+        ParenthesesValidator, but splits large inputs over the threads of a
+        `ForkJoinPool`. Every chunk is reduced to a BracketSummary of its
+        unmatched closing and opening brackets, and since combining
+        summaries is associative the chunks can be summarised at the same
+        time and merged afterwards, in order.
+    Usage:
+        Use `validate(ByteBuffer buffer)` or `validate(Path path)`, which run
+        in the common pool, or
+        `validate(ByteBuffer buffer, ForkJoinPool pool, int chunkSize)` to
+        choose the pool and how small a chunk is split no further. Inputs
+        smaller than one chunk are validated on the calling thread. To run
+        tests, run static main function of the class.
+ */
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class ParallelParenthesesValidator
+{
+    // chunks smaller than this are summarised by one thread
+    private static final int DEFAULT_CHUNK_SIZE = 1024 * 1024;
+
+    // the largest window of a file that is mapped at once
+    private static final long MAP_WINDOW_SIZE = 1L << 30;
+
+    // summarises `buffer[from..to)` by splitting it in halves until the
+    // pieces are smaller than `chunkSize`.
+    private static class SummaryTask extends RecursiveTask<BracketSummary>
+    {
+        private static final long serialVersionUID = 1L;
+
+        private final ByteBuffer buffer;
+        private final int from, to, chunkSize;
+
+        // set by the first chunk that finds a mismatch, so the other chunks
+        // can stop early
+        private final AtomicBoolean failed;
+
+        SummaryTask(ByteBuffer buffer, int from, int to, int chunkSize, AtomicBoolean failed)
+        {
+            this.buffer = buffer;
+            this.from = from;
+            this.to = to;
+            this.chunkSize = chunkSize;
+            this.failed = failed;
+        }
+
+        @Override
+        protected BracketSummary compute()
+        {
+            if (failed.get())
+            {
+                return BracketSummary.INVALID;
+            }
+
+            if (to - from <= chunkSize)
+            {
+                BracketSummary summary = BracketSummary.of(buffer, from, to);
+                if (!summary.isValid())
+                {
+                    failed.set(true);
+                }
+
+                return summary;
+            }
+
+            int middle = (from + to) >>> 1;
+            SummaryTask left = new SummaryTask(buffer, from, middle, chunkSize, failed);
+            SummaryTask right = new SummaryTask(buffer, middle, to, chunkSize, failed);
+
+            // run the left half on another thread and the right half here
+            left.fork();
+            BracketSummary rightSummary = right.compute();
+            BracketSummary leftSummary = left.join();
+
+            BracketSummary combined = BracketSummary.combine(leftSummary, rightSummary);
+            if (!combined.isValid())
+            {
+                failed.set(true);
+            }
+
+            return combined;
+        }
+    }
+
+    // returns the summary of the remaining bytes of `buffer`.
+    private static BracketSummary summarise(ByteBuffer buffer, ForkJoinPool pool, int chunkSize)
+    {
+        int from = buffer.position();
+        int to = buffer.limit();
+
+        if (to - from <= chunkSize)
+        {
+            return BracketSummary.of(buffer, from, to);
+        }
+
+        return pool.invoke(new SummaryTask(buffer, from, to, chunkSize, new AtomicBoolean()));
+    }
+
+    // returns true if the remaining bytes of `buffer` are balanced.
+    public static boolean validate(ByteBuffer buffer, ForkJoinPool pool, int chunkSize)
+    {
+        if (chunkSize < 1)
+        {
+            throw new IllegalArgumentException();
+        }
+
+        return summarise(buffer, pool, chunkSize).isBalanced();
+    }
+
+    // returns true if the remaining bytes of `buffer` are balanced.
+    public static boolean validate(ByteBuffer buffer)
+    {
+        return validate(buffer, ForkJoinPool.commonPool(), DEFAULT_CHUNK_SIZE);
+    }
+
+    // returns true if the file at `path` is balanced. the file is mapped one
+    // window at a time, every window is validated in parallel and the
+    // summaries of the windows are combined in order.
+    public static boolean validate(Path path) throws IOException
+    {
+        BracketSummary summary = BracketSummary.EMPTY;
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ))
+        {
+            long size = channel.size();
+            for (long offset = 0; offset < size; offset += MAP_WINDOW_SIZE)
+            {
+                long length = Math.min(MAP_WINDOW_SIZE, size - offset);
+                ByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, offset, length);
+
+                summary = BracketSummary.combine(summary,
+                        summarise(window, ForkJoinPool.commonPool(), DEFAULT_CHUNK_SIZE));
+
+                if (!summary.isValid())
+                {
+                    return false;
+                }
+            }
+        }
+
+        return summary.isBalanced();
+    }
+
+    // test method
+    public static void main(String[] args) throws IOException
+    {
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+
+        // with a tiny chunk size even short inputs are split up
+        String[] inputs = { "", "()", "([]{()})", "(", ")", "(]", "([)]", "(a)", ")(", "((()))]" };
+        for (String input : inputs)
+        {
+            ByteBuffer buffer = ByteBuffer.wrap(input.getBytes(StandardCharsets.US_ASCII));
+            boolean parallel_result = validate(buffer, pool, 1);
+            boolean sequential_result = ParenthesesValidator.validate(input);
+
+            assert parallel_result == sequential_result : input;
+        }
+
+        // case test
+        // random inputs, most of them balanced, must get the same answer in
+        // parallel as sequentially for any chunk size
+        Random random = new Random(5);
+        for (int n = 0; n < 2000; n++)
+        {
+            String input = randomInput(random, 1 + random.nextInt(200));
+            ByteBuffer buffer = ByteBuffer.wrap(input.getBytes(StandardCharsets.US_ASCII));
+
+            boolean parallel_result = validate(buffer, pool, 1 + random.nextInt(16));
+            boolean sequential_result = ParenthesesValidator.validate(input);
+
+            assert parallel_result == sequential_result : input;
+        }
+
+        // a large, deeply nested file
+        int depth = 50_000_000;
+        Path file = Files.createTempFile("parentheses", ".txt");
+        try
+        {
+            try (FileChannel out = FileChannel.open(file, StandardOpenOption.WRITE))
+            {
+                ByteBuffer block = ByteBuffer.allocate(1 << 16);
+                for (int i = 0; i < 2 * depth; i++)
+                {
+                    if (!block.hasRemaining())
+                    {
+                        block.flip();
+                        out.write(block);
+                        block.clear();
+                    }
+
+                    block.put(i < depth ? (byte)'(' : (byte)')');
+                }
+
+                block.flip();
+                out.write(block);
+            }
+
+            long start = System.nanoTime();
+            boolean sequential_result = ParenthesesValidator.validate(file);
+            long sequential = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            boolean parallel_result = validate(file);
+            long parallel = System.nanoTime() - start;
+
+            assert sequential_result && parallel_result;
+            System.out.println(2 * depth + " bytes: sequential " + sequential / 1_000_000 + " ms, parallel " +
+                    parallel / 1_000_000 + " ms on " + pool.getParallelism() + " threads");
+        }
+        finally
+        {
+            Files.delete(file);
+        }
+    }
+
+    // returns a random bracket string, balanced unless a mistake is added
+    private static String randomInput(Random random, int pairs)
+    {
+        StringBuilder sb = new StringBuilder();
+        CharStack open = new CharStack();
+        String opening = "([{";
+        String closing = ")]}";
+
+        while (pairs > 0 || !open.isEmpty())
+        {
+            if (pairs > 0 && (open.isEmpty() || random.nextBoolean()))
+            {
+                int kind = random.nextInt(3);
+                sb.append(opening.charAt(kind));
+                open.push(closing.charAt(kind));
+                pairs--;
+            }
+            else
+            {
+                sb.append(open.pop());
+            }
+        }
+
+        // now and then change a character
+        if (random.nextInt(3) == 0)
+        {
+            int i = random.nextInt(sb.length());
+            sb.setCharAt(i, "()[]{}x".charAt(random.nextInt(7)));
+        }
+
+        return sb.toString();
+    }
+}
@@ -0,0 +1,360 @@
+/*
+    Author: Andreas Hammarstrand
+    Written: 2026/10/18
+    Purpose:
+        ParenthesesValidator checks that an input is balanced the same way
+        as BalancedParentheses: the input may only hold '(', ')', '[', ']',
+        '{' and '}' and every bracket has to be closed by its own kind in
+        the right order. Instead of recursing once per nesting level it
+        keeps the closing brackets it expects on a `CharStack`, and it reads
+        the input as bytes in chunks, so its memory use grows with the
+        nesting depth of the input and not with its size. Files are read
+        through `FileChannel.map`, window by window.
+    Usage:
+        For a one-off check use one of the static `validate` methods, which
+        accept a `String`, a `ByteBuffer`, a `ReadableByteChannel` or a
+        `Path`. To validate input that arrives in pieces, create an instance
+        with `new ParenthesesValidator()`, pass every piece to
+        `boolean feed(ByteBuffer)` and finish with `boolean isBalanced()`;
+        `reset()` makes the instance ready for the next input.
+        `errorPosition()` tells where the input went wrong. Created with
+        `new ParenthesesValidator(true)` (or through
+        `validateIgnoringText(ByteBuffer)`) every byte that is not a bracket
+        is skipped, using BracketScanner to find the brackets. To run tests,
+        run static main function of the class.
+ */
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+public class ParenthesesValidator
+{
+    // the size of the buffer used to read channels
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+
+    // the largest window of a file that is mapped at once
+    private static final long MAP_WINDOW_SIZE = 64L * 1024 * 1024;
+
+    // the closing brackets expected, the innermost on top
+    private final CharStack expected = new CharStack();
+
+    // the amount of bytes fed so far
+    private long position;
+
+    // the position of the first byte that made the input unbalanced, or -1
+    private long errorPosition = -1;
+
+    // if true, bytes that are not brackets are skipped instead of being errors
+    private final boolean ignoreText;
+
+    public ParenthesesValidator()
+    {
+        this(false);
+    }
+
+    // with `ignoreText` set only the brackets of the input are checked, any
+    // other byte is skipped, which suits brackets embedded in text or code.
+    public ParenthesesValidator(boolean ignoreText)
+    {
+        this.ignoreText = ignoreText;
+    }
+
+    // returns the closing bracket for an opening bracket, or 0 for any
+    // other byte.
+    private static char closerOf(int b)
+    {
+        switch (b)
+        {
+            case '(': return ')';
+            case '[': return ']';
+            case '{': return '}';
+        }
+
+        return 0;
+    }
+
+    // makes the instance ready for a new input.
+    public void reset()
+    {
+        while (!expected.isEmpty())
+        {
+            expected.pop();
+        }
+
+        position = 0;
+        errorPosition = -1;
+    }
+
+    // checks one byte, returns false if it made the input unbalanced.
+    private boolean step(int b)
+    {
+        char closer = closerOf(b);
+        if (closer != 0)
+        {
+            expected.push(closer);
+            return true;
+        }
+
+        // anything but the expected closing bracket is an error, this
+        // includes a closing bracket when nothing is open.
+        if (!expected.isEmpty() && expected.peek() == b)
+        {
+            expected.pop();
+            return true;
+        }
+
+        return false;
+    }
+
+    // checks the remaining bytes of `buffer` and consumes them. returns
+    // false as soon as the input can no longer be balanced, later calls
+    // then return false without reading anything.
+    public boolean feed(ByteBuffer buffer)
+    {
+        if (errorPosition >= 0)
+        {
+            return false;
+        }
+
+        int start = buffer.position();
+        int end = buffer.limit();
+
+        if (ignoreText)
+        {
+            // `BracketScanner` skips the text a word at a time, only the
+            // brackets reach the stack
+            for (int i = BracketScanner.nextBracket(buffer, start, end); i < end;
+                    i = BracketScanner.nextBracket(buffer, i + 1, end))
+            {
+                if (!step(buffer.get(i)))
+                {
+                    return fail(buffer, i);
+                }
+            }
+        }
+        else if (buffer.hasArray())
+        {
+            // heap buffers are read straight from their array
+            byte[] array = buffer.array();
+            int offset = buffer.arrayOffset();
+            for (int i = start; i < end; i++)
+            {
+                if (!step(array[offset + i]))
+                {
+                    return fail(buffer, i);
+                }
+            }
+        }
+        else
+        {
+            for (int i = start; i < end; i++)
+            {
+                if (!step(buffer.get(i)))
+                {
+                    return fail(buffer, i);
+                }
+            }
+        }
+
+        buffer.position(end);
+        position += end - start;
+        return true;
+    }
+
+    // records the error at `index` in `buffer`
+    private boolean fail(ByteBuffer buffer, int index)
+    {
+        errorPosition = position + index - buffer.position();
+        position = errorPosition + 1;
+        buffer.position(index + 1);
+        return false;
+    }
+
+    // returns true if everything fed so far is balanced, otherwise false.
+    public boolean isBalanced()
+    {
+        return errorPosition < 0 && expected.isEmpty();
+    }
+
+    // returns the position of the byte that made the input unbalanced, the
+    // input length if brackets were left open, or -1 if it is balanced.
+    public long errorPosition()
+    {
+        if (errorPosition >= 0)
+        {
+            return errorPosition;
+        }
+
+        return expected.isEmpty() ? -1 : position;
+    }
+
+    // returns the amount of brackets currently open.
+    public int depth()
+    {
+        return expected.size();
+    }
+
+    // returns true if `input` is balanced.
+    public static boolean validate(String input)
+    {
+        return validate(ByteBuffer.wrap(input.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    // returns true if the remaining bytes of `buffer` are balanced.
+    public static boolean validate(ByteBuffer buffer)
+    {
+        ParenthesesValidator validator = new ParenthesesValidator();
+        return validator.feed(buffer) && validator.isBalanced();
+    }
+
+    // returns true if the brackets among the remaining bytes of `buffer` are
+    // balanced, every other byte is ignored.
+    public static boolean validateIgnoringText(ByteBuffer buffer)
+    {
+        ParenthesesValidator validator = new ParenthesesValidator(true);
+        return validator.feed(buffer) && validator.isBalanced();
+    }
+
+    // returns true if everything that can be read from `channel` is balanced.
+    // reading stops at the first error.
+    public static boolean validate(ReadableByteChannel channel) throws IOException
+    {
+        ParenthesesValidator validator = new ParenthesesValidator();
+        ByteBuffer buffer = ByteBuffer.allocateDirect(READ_BUFFER_SIZE);
+
+        while (channel.read(buffer) >= 0)
+        {
+            buffer.flip();
+            if (!validator.feed(buffer))
+            {
+                return false;
+            }
+
+            buffer.clear();
+        }
+
+        return validator.isBalanced();
+    }
+
+    // returns true if the file at `path` is balanced. the file is mapped into
+    // memory one window at a time rather than read into the heap.
+    public static boolean validate(Path path) throws IOException
+    {
+        ParenthesesValidator validator = new ParenthesesValidator();
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ))
+        {
+            long size = channel.size();
+            for (long offset = 0; offset < size; offset += MAP_WINDOW_SIZE)
+            {
+                long length = Math.min(MAP_WINDOW_SIZE, size - offset);
+                MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, offset, length);
+
+                if (!validator.feed(window))
+                {
+                    return false;
+                }
+            }
+        }
+
+        return validator.isBalanced();
+    }
+
+    // test method
+    public static void main(String[] args) throws IOException
+    {
+        // the same answers as `BalancedParentheses`
+        assert validate("");
+        assert validate("()");
+        assert validate("([]{()})");
+        assert validate("()[]{}");
+        assert !validate("(");
+        assert !validate(")");
+        assert !validate("(]");
+        assert !validate("([)]");
+        assert !validate("(a)");
+
+        // the error position points at the offending byte, or at the end of
+        // the input when brackets are left open
+        ParenthesesValidator validator = new ParenthesesValidator();
+
+        validator.feed(ByteBuffer.wrap("(()]".getBytes(StandardCharsets.US_ASCII)));
+        long mismatch_position_result = validator.errorPosition();
+        assert mismatch_position_result == 3 : mismatch_position_result;
+
+        validator.reset();
+        validator.feed(ByteBuffer.wrap("((".getBytes(StandardCharsets.US_ASCII)));
+        long open_position_result = validator.errorPosition();
+        int open_depth_result = validator.depth();
+
+        assert open_position_result == 2 : open_position_result;
+        assert open_depth_result == 2 : open_depth_result;
+
+        // input split into several pieces, as it arrives from a channel
+        validator.reset();
+        validator.feed(ByteBuffer.wrap("([{".getBytes(StandardCharsets.US_ASCII)));
+        validator.feed(ByteBuffer.wrap("}]".getBytes(StandardCharsets.US_ASCII)));
+        boolean split_open_result = validator.isBalanced();
+        validator.feed(ByteBuffer.wrap(")".getBytes(StandardCharsets.US_ASCII)));
+        boolean split_closed_result = validator.isBalanced();
+
+        assert !split_open_result;
+        assert split_closed_result;
+
+        // ignoring text, only the brackets count, and errors are still
+        // reported at the position of the offending bracket
+        assert validateIgnoringText(ByteBuffer.wrap("f(a[i]) { return \"x\"; }".getBytes(StandardCharsets.US_ASCII)));
+        assert !validateIgnoringText(ByteBuffer.wrap("while (x] {".getBytes(StandardCharsets.US_ASCII)));
+
+        ParenthesesValidator lenient = new ParenthesesValidator(true);
+        lenient.feed(ByteBuffer.wrap("some text that is longer than a few words (and then ]".getBytes(StandardCharsets.US_ASCII)));
+        long lenient_position_result = lenient.errorPosition();
+        assert lenient_position_result == 52 : lenient_position_result;
+
+        // case test
+        // nesting far deeper than the recursive `matching` can handle, from
+        // a direct buffer and from a mapped file.
+        int depth = 1_000_000;
+        ByteBuffer deep = ByteBuffer.allocateDirect(2 * depth);
+        for (int i = 0; i < depth; i++)
+        {
+            deep.put(i % 3 == 0 ? (byte)'(' : i % 3 == 1 ? (byte)'[' : (byte)'{');
+        }
+
+        for (int i = depth - 1; i >= 0; i--)
+        {
+            deep.put(i % 3 == 0 ? (byte)')' : i % 3 == 1 ? (byte)']' : (byte)'}');
+        }
+
+        deep.flip();
+        assert validate(deep.duplicate());
+
+        Path file = Files.createTempFile("parentheses", ".txt");
+        try
+        {
+            try (FileChannel out = FileChannel.open(file, StandardOpenOption.WRITE))
+            {
+                out.write(deep.duplicate());
+            }
+
+            long start = System.nanoTime();
+            boolean file_result = validate(file);
+            long elapsed = System.nanoTime() - start;
+
+            assert file_result;
+            System.out.println(2 * depth + " bytes nested " + depth + " deep validated in " +
+                    elapsed / 1_000_000 + " ms");
+        }
+        finally
+        {
+            Files.delete(file);
+        }
+    }
+}
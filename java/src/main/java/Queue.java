@@ -0,0 +1,26 @@
+/*
+    Author: Andreas Hammarstrand
+    Written: 2026/10/18
+    Purpose:
+        Queue<T> is the common FIFO contract shared by the queue
+        implementations, so that one implementation can be swapped for
+        another without touching the code that uses it.
+    Usage:
+        Declare variables as `Queue<T>` and instantiate any implementation,
+        e.g. `Queue<T> q = new CircularArrayQueue<T>()`.
+ */
+
+public interface Queue<T> extends Iterable<T>
+{
+    // puts the item at the end of the queue.
+    void enqueue(T item);
+
+    // returns and removes the value from the front of the queue.
+    T dequeue();
+
+    // returns amount of elements in the queue.
+    int size();
+
+    // returns true if the queue is empty, otherwise false.
+    boolean isEmpty();
+}
@@ -1,7 +1,7 @@
 /*
     Author: Andreas Hammarstrand
     Written: 2020/08/31
-    Updated: 2020/09/06
+    Updated: 2026/10/18
     Purpose:
         This file attempts to replicate the behavior of the `main.c` file,
         from the neighbouring directories, but implemented in Java and
@@ -9,10 +9,16 @@
     Usage:
         The main function of this Java file executes both the recursive and
         iterative functions. The accepted inputs are any Unicode 6.0.0
-        characters for 16 bits.
+        characters for 16 bits. Run with `--stream` to reverse every line of
+        stdin through LineReverser instead, which handles lines of any
+        length and reports the lines per second on stderr. Run with
+        `--file=bytes <input> <output>` or `--file=lines <input> <output>` to
+        reverse a file of any size through FileReverser.
  */
 
 import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.file.Paths;
 import java.util.Scanner;
 
 public class RecursiveAndIterativeReverse
@@ -33,11 +39,34 @@ public class RecursiveAndIterativeReverse
 
     public static void main(String[] args) throws IOException
     {
+        if (args.length == 3 && args[0].startsWith("--file="))
+        {
+            FileReverser.Mode mode = FileReverser.Mode.valueOf(
+                    args[0].substring("--file=".length()).toUpperCase());
+
+            new FileReverser().reverse(Paths.get(args[1]), Paths.get(args[2]), mode);
+            return;
+        }
+
+        if (args.length > 0 && args[0].equals("--stream"))
+        {
+            LineReverser reverser = new LineReverser();
+
+            long start = System.nanoTime();
+            reverser.run(Channels.newChannel(System.in), Channels.newChannel(System.out));
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            System.err.println(String.format("%d lines, %d bytes in %.2f s: %.0f lines/s",
+                    reverser.lines(), reverser.bytes(), seconds, reverser.lines() / seconds));
+            return;
+        }
+
         System.out.println("Recursive:");
         recursive();
 
         System.out.println("Iterative:");
-        Stack<Character>  characters = new Stack<Character>();
+        // `CharStack` keeps the characters unboxed
+        CharStack characters = new CharStack();
 
         Scanner in = new Scanner(System.in);
         String input = in.nextLine();
@@ -49,7 +78,7 @@ public class RecursiveAndIterativeReverse
         }
 
         // write out all of the stack through popping
-        while (characters.isEmpty())
+        while (!characters.isEmpty())
         {
             System.out.print(characters.pop());
         }
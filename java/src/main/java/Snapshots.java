@@ -0,0 +1,815 @@
+/*
+    Author: Andreas Hammarstrand
+    Written: 2026/10/18
+    Purpose:
+        Snapshots writes stacks and queues to a compact binary format and
+        reads them back, without Java serialization. A snapshot starts with
+        a header of a magic number, a format version, the kind of structure
+        and the amount of elements. For Stack<T> and Queue<T> every element
+        follows as its length and the bytes a Codec<T> makes of it, so any
+        element type can be stored and an element can be skipped or checked
+        without knowing its type. IntStack, CharStack and LongStack are
+        written as their raw values, copied from and to their backing
+        arrays in bulk, and a Stack<T> is read straight into a new backing
+        array instead of being pushed one element at a time.
+        All data goes through one direct buffer of 1 MB, so a snapshot is
+        written and read with large sequential channel operations and runs
+        at the speed of the channel, such as a FileChannel.
+    Usage:
+        Write with `write(Stack<T> stack, Codec<T> codec, WritableByteChannel out)`,
+        `write(Queue<T> queue, Codec<T> codec, WritableByteChannel out)` or
+        `write(IntStack stack, WritableByteChannel out)` and the like for
+        CharStack and LongStack. Read with `readStack(in, codec)`,
+        `readQueue(in, codec, queue)`, which enqueues into the given queue,
+        `readIntStack(in)`, `readCharStack(in)` and `readLongStack(in)`.
+        Stacks are written from the bottom up and queues from the front, so
+        the structure read back is the same. To use a ByteBuffer instead of
+        a file, wrap it with `channel(ByteBuffer buffer)`. Reading stops at
+        the end of the snapshot, so snapshots written one after the other
+        are read back one after the other. A snapshot that is not of the
+        expected kind, of a newer version or cut short gives an
+        `IOException`. To run tests, run static main function of the class.
+ */
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ByteChannel;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Random;
+
+public class Snapshots
+{
+    private static final int MAGIC = 0x534E4150;
+    private static final short VERSION = 1;
+
+    // magic, version, kind, amount of elements
+    private static final int HEADER_SIZE = 4 + 2 + 1 + 8;
+
+    private static final byte STACK = 1;
+    private static final byte QUEUE = 2;
+    private static final byte INT_STACK = 3;
+    private static final byte CHAR_STACK = 4;
+    private static final byte LONG_STACK = 5;
+
+    private static final int BUFFER_SIZE = 1024 * 1024;
+
+    // the most elements a snapshot can hold, a stack array can not be
+    // larger
+    private static final int MAX_COUNT = Integer.MAX_VALUE - 8;
+
+    // the largest stack array made before any element is read, unless the
+    // channel is a file that holds all of them. the array then doubles as
+    // elements are read, so a header claiming far more elements than follow
+    // it can not take the heap.
+    private static final int CHUNK = 1024 * 1024;
+
+    // writes through a buffer to a channel
+    private static class Output
+    {
+        final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        final WritableByteChannel channel;
+
+        // the encoded element being written
+        final Scratch scratch = new Scratch();
+        final DataOutputStream scratchOut = new DataOutputStream(scratch);
+
+        Output(WritableByteChannel channel, byte kind, long count) throws IOException
+        {
+            this.channel = channel;
+
+            buffer.putInt(MAGIC);
+            buffer.putShort(VERSION);
+            buffer.put(kind);
+            buffer.putLong(count);
+        }
+
+        // makes room for at least `n` bytes, at most the size of the buffer
+        void need(int n) throws IOException
+        {
+            if (buffer.remaining() < n)
+            {
+                flush();
+            }
+        }
+
+        void flush() throws IOException
+        {
+            buffer.flip();
+            while (buffer.hasRemaining())
+            {
+                channel.write(buffer);
+            }
+
+            buffer.clear();
+        }
+
+        // writes `value` as its length and the bytes `codec` makes of it
+        <T> void element(T value, Codec<T> codec) throws IOException
+        {
+            scratch.reset();
+            codec.encode(value, scratchOut);
+
+            int length = scratch.size();
+            need(4);
+            buffer.putInt(length);
+
+            byte[] bytes = scratch.array();
+            for (int i = 0; i < length; )
+            {
+                need(1);
+                int n = Math.min(length - i, buffer.remaining());
+                buffer.put(bytes, i, n);
+                i += n;
+            }
+        }
+    }
+
+    private static class Scratch extends ByteArrayOutputStream
+    {
+        byte[] array()
+        {
+            return buf;
+        }
+    }
+
+    // reads through a buffer from a channel, never past the end of the
+    // snapshot. it is also the stream that a codec decodes an element from,
+    // which ends with the element.
+    private static class Input extends InputStream
+    {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        final ReadableByteChannel channel;
+        final DataInputStream data = new DataInputStream(this);
+
+        // the bytes of the snapshot known to be left in the channel. every
+        // element is at least `width` bytes, and the length of an element
+        // is added once it is read.
+        long left = HEADER_SIZE;
+
+        // the end of the element being decoded in `buffer`
+        int end;
+
+        final long count;
+
+        Input(ReadableByteChannel channel, byte kind, int width) throws IOException
+        {
+            this.channel = channel;
+            buffer.limit(0);
+
+            need(HEADER_SIZE);
+            if (buffer.getInt() != MAGIC)
+            {
+                throw new IOException("not a snapshot");
+            }
+
+            short version = buffer.getShort();
+            if (version < 1 || version > VERSION)
+            {
+                throw new IOException("unsupported snapshot version " + version);
+            }
+
+            byte actual = buffer.get();
+            if (actual != kind)
+            {
+                throw new IOException("snapshot of kind " + actual + " where kind " + kind + " was expected");
+            }
+
+            count = buffer.getLong();
+            if (count < 0 || count > MAX_COUNT)
+            {
+                throw new IOException("snapshot with " + count + " elements");
+            }
+
+            left += count * width;
+        }
+
+        // makes at least `n` bytes remain in the buffer, growing it if they
+        // do not fit
+        void need(int n) throws IOException
+        {
+            if (buffer.remaining() >= n)
+            {
+                return;
+            }
+
+            if (buffer.capacity() < n)
+            {
+                ByteBuffer bigger = ByteBuffer.allocateDirect(Math.max(n, buffer.capacity() * 2));
+                bigger.put(buffer);
+                buffer = bigger;
+            }
+            else
+            {
+                buffer.compact();
+            }
+
+            while (buffer.position() < n)
+            {
+                if (left == 0)
+                {
+                    throw new IOException("element runs past the end of the snapshot");
+                }
+
+                buffer.limit((int)Math.min(buffer.capacity(), buffer.position() + left));
+                int read = channel.read(buffer);
+                buffer.limit(buffer.capacity());
+
+                if (read < 0)
+                {
+                    throw new EOFException("snapshot ends early");
+                }
+
+                left -= read;
+            }
+
+            buffer.flip();
+        }
+
+        // returns the length of the first stack array for the elements. a
+        // file tells if all of them can be there, then the array is made for
+        // all of them at once.
+        int capacity() throws IOException
+        {
+            if (channel instanceof FileChannel)
+            {
+                FileChannel file = (FileChannel)channel;
+                if (left > buffer.remaining() + file.size() - file.position())
+                {
+                    throw new EOFException("snapshot ends early");
+                }
+
+                return (int)Math.max(8, count + 1);
+            }
+
+            return (int)Math.max(8, Math.min(count + 1, CHUNK));
+        }
+
+        // reads an element written by `Output.element`
+        <T> T element(Codec<T> codec) throws IOException
+        {
+            need(4);
+            int length = buffer.getInt();
+            if (length < 0)
+            {
+                throw new IOException("element of length " + length);
+            }
+
+            left += length;
+
+            need(length);
+            end = buffer.position() + length;
+
+            T value = codec.decode(data);
+            if (buffer.position() != end)
+            {
+                throw new IOException("element was not decoded whole");
+            }
+
+            return value;
+        }
+
+        @Override
+        public int read()
+        {
+            return buffer.position() < end ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len)
+        {
+            if (len == 0)
+            {
+                return 0;
+            }
+
+            int n = Math.min(len, end - buffer.position());
+            if (n <= 0)
+            {
+                return -1;
+            }
+
+            buffer.get(b, off, n);
+            return n;
+        }
+    }
+
+    // returns the length a full stack array of `length` for `count`
+    // elements grows to, with room for one more element in the end.
+    private static int grow(int length, long count)
+    {
+        return (int)Math.min(count + 1, length * 2L);
+    }
+
+    // writes a snapshot of `stack` to `out`, the elements are encoded by
+    // `codec`.
+    public static <T> void write(Stack<T> stack, Codec<T> codec, WritableByteChannel out) throws IOException
+    {
+        T[] values = stack.array();
+        int count = stack.size();
+
+        Output output = new Output(out, STACK, count);
+        for (int i = 0; i < count; i++)
+        {
+            output.element(values[i], codec);
+        }
+
+        output.flush();
+    }
+
+    // reads a snapshot of a Stack<T> from `in`.
+    public static <T> Stack<T> readStack(ReadableByteChannel in, Codec<T> codec) throws IOException
+    {
+        Input input = new Input(in, STACK, 4);
+
+        T[] values = (T[])new Object[input.capacity()];
+        for (int i = 0; i < input.count; i++)
+        {
+            if (i == values.length - 1)
+            {
+                values = Arrays.copyOf(values, grow(values.length, input.count));
+            }
+
+            values[i] = input.element(codec);
+        }
+
+        Stack<T> stack = new Stack<T>();
+        stack.install(values, (int)input.count);
+        return stack;
+    }
+
+    // writes a snapshot of `queue` to `out`, the elements are encoded by
+    // `codec`.
+    public static <T> void write(Queue<T> queue, Codec<T> codec, WritableByteChannel out) throws IOException
+    {
+        Output output = new Output(out, QUEUE, queue.size());
+        for (T value : queue)
+        {
+            output.element(value, codec);
+        }
+
+        output.flush();
+    }
+
+    // reads a snapshot of a Queue<T> from `in` and enqueues its elements
+    // into `queue`, which is returned.
+    public static <T, Q extends Queue<T>> Q readQueue(ReadableByteChannel in, Codec<T> codec, Q queue)
+            throws IOException
+    {
+        Input input = new Input(in, QUEUE, 4);
+        for (long i = 0; i < input.count; i++)
+        {
+            queue.enqueue(input.element(codec));
+        }
+
+        return queue;
+    }
+
+    // writes a snapshot of `stack` to `out`.
+    public static void write(IntStack stack, WritableByteChannel out) throws IOException
+    {
+        int[] values = stack.array();
+        int count = stack.size();
+
+        Output output = new Output(out, INT_STACK, count);
+        for (int i = 0; i < count; )
+        {
+            output.need(4);
+            int n = Math.min(count - i, output.buffer.remaining() / 4);
+            output.buffer.asIntBuffer().put(values, i, n);
+            output.buffer.position(output.buffer.position() + n * 4);
+            i += n;
+        }
+
+        output.flush();
+    }
+
+    // reads a snapshot of an IntStack from `in`.
+    public static IntStack readIntStack(ReadableByteChannel in) throws IOException
+    {
+        Input input = new Input(in, INT_STACK, 4);
+        int count = (int)input.count;
+
+        int[] values = new int[input.capacity()];
+        for (int i = 0; i < count; )
+        {
+            if (i == values.length - 1)
+            {
+                values = Arrays.copyOf(values, grow(values.length, count));
+            }
+
+            input.need(4);
+            int n = Math.min(Math.min(count - i, values.length - 1 - i), input.buffer.remaining() / 4);
+            input.buffer.asIntBuffer().get(values, i, n);
+            input.buffer.position(input.buffer.position() + n * 4);
+            i += n;
+        }
+
+        IntStack stack = new IntStack();
+        stack.install(values, count);
+        return stack;
+    }
+
+    // writes a snapshot of `stack` to `out`.
+    public static void write(CharStack stack, WritableByteChannel out) throws IOException
+    {
+        char[] values = stack.array();
+        int count = stack.size();
+
+        Output output = new Output(out, CHAR_STACK, count);
+        for (int i = 0; i < count; )
+        {
+            output.need(2);
+            int n = Math.min(count - i, output.buffer.remaining() / 2);
+            output.buffer.asCharBuffer().put(values, i, n);
+            output.buffer.position(output.buffer.position() + n * 2);
+            i += n;
+        }
+
+        output.flush();
+    }
+
+    // reads a snapshot of a CharStack from `in`.
+    public static CharStack readCharStack(ReadableByteChannel in) throws IOException
+    {
+        Input input = new Input(in, CHAR_STACK, 2);
+        int count = (int)input.count;
+
+        char[] values = new char[input.capacity()];
+        for (int i = 0; i < count; )
+        {
+            if (i == values.length - 1)
+            {
+                values = Arrays.copyOf(values, grow(values.length, count));
+            }
+
+            input.need(2);
+            int n = Math.min(Math.min(count - i, values.length - 1 - i), input.buffer.remaining() / 2);
+            input.buffer.asCharBuffer().get(values, i, n);
+            input.buffer.position(input.buffer.position() + n * 2);
+            i += n;
+        }
+
+        CharStack stack = new CharStack();
+        stack.install(values, count);
+        return stack;
+    }
+
+    // writes a snapshot of `stack` to `out`.
+    public static void write(LongStack stack, WritableByteChannel out) throws IOException
+    {
+        long[] values = stack.array();
+        int count = stack.size();
+
+        Output output = new Output(out, LONG_STACK, count);
+        for (int i = 0; i < count; )
+        {
+            output.need(8);
+            int n = Math.min(count - i, output.buffer.remaining() / 8);
+            output.buffer.asLongBuffer().put(values, i, n);
+            output.buffer.position(output.buffer.position() + n * 8);
+            i += n;
+        }
+
+        output.flush();
+    }
+
+    // reads a snapshot of a LongStack from `in`.
+    public static LongStack readLongStack(ReadableByteChannel in) throws IOException
+    {
+        Input input = new Input(in, LONG_STACK, 8);
+        int count = (int)input.count;
+
+        long[] values = new long[input.capacity()];
+        for (int i = 0; i < count; )
+        {
+            if (i == values.length - 1)
+            {
+                values = Arrays.copyOf(values, grow(values.length, count));
+            }
+
+            input.need(8);
+            int n = Math.min(Math.min(count - i, values.length - 1 - i), input.buffer.remaining() / 8);
+            input.buffer.asLongBuffer().get(values, i, n);
+            input.buffer.position(input.buffer.position() + n * 8);
+            i += n;
+        }
+
+        LongStack stack = new LongStack();
+        stack.install(values, count);
+        return stack;
+    }
+
+    // returns a channel that writes to and reads from the remaining bytes
+    // of `buffer`. writing more than fits gives a BufferOverflowException.
+    public static ByteChannel channel(ByteBuffer buffer)
+    {
+        return new ByteBufferChannel(buffer);
+    }
+
+    private static class ByteBufferChannel implements ByteChannel
+    {
+        final ByteBuffer buffer;
+
+        ByteBufferChannel(ByteBuffer buffer)
+        {
+            this.buffer = buffer;
+        }
+
+        public int read(ByteBuffer target)
+        {
+            if (!buffer.hasRemaining())
+            {
+                return -1;
+            }
+
+            int n = Math.min(buffer.remaining(), target.remaining());
+            ByteBuffer part = buffer.duplicate();
+            part.limit(part.position() + n);
+            target.put(part);
+            buffer.position(buffer.position() + n);
+            return n;
+        }
+
+        public int write(ByteBuffer source)
+        {
+            if (source.remaining() > buffer.remaining())
+            {
+                throw new BufferOverflowException();
+            }
+
+            int n = source.remaining();
+            buffer.put(source);
+            return n;
+        }
+
+        public boolean isOpen()
+        {
+            return true;
+        }
+
+        public void close()
+        {
+        }
+    }
+
+    // test method
+    public static void main(String[] args) throws IOException
+    {
+        // a stack through a ByteBuffer comes back the same, and can still be
+        // pushed to and popped from
+        Stack<String> strings = new Stack<String>();
+        for (int i = 0; i < 1000; i++)
+        {
+            strings.push("s" + i);
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+        write(strings, Codec.STRING, channel(buffer));
+        buffer.flip();
+        Stack<String> strings_result = readStack(channel(buffer), Codec.STRING);
+
+        assert strings_result.size() == 1000 : strings_result.size();
+        strings_result.push("top");
+        assert strings_result.pop().equals("top");
+        for (int i = 999; i >= 0; i--)
+        {
+            String pop_result = strings_result.pop();
+            assert pop_result.equals("s" + i) : pop_result;
+        }
+
+        assert strings_result.isEmpty();
+
+        // an empty stack has a snapshot as well
+        buffer.clear();
+        write(new IntStack(), channel(buffer));
+        buffer.flip();
+        IntStack empty_result = readIntStack(channel(buffer));
+        assert empty_result.isEmpty();
+        empty_result.push(1);
+        assert empty_result.pop() == 1;
+
+        // a queue is read into any queue, in the same order
+        CircularDoubleLinkedQueue<Integer> queue = new CircularDoubleLinkedQueue<Integer>();
+        for (int i = 0; i < 100; i++)
+        {
+            queue.enqueue(i * i);
+        }
+
+        buffer.clear();
+        write(queue, Codec.INTEGER, channel(buffer));
+        buffer.flip();
+        CircularArrayQueue<Integer> queue_result = readQueue(channel(buffer), Codec.INTEGER,
+                new CircularArrayQueue<Integer>());
+        assert queue_result.toString().equals(queue.toString()) : queue_result;
+
+        // a snapshot of another kind, a cut short snapshot and something
+        // that is not a snapshot are errors
+        buffer.rewind();
+        boolean kind_threw = false;
+        try
+        {
+            readStack(channel(buffer), Codec.INTEGER);
+        }
+        catch (IOException e)
+        {
+            kind_threw = true;
+        }
+
+        buffer.rewind().limit(buffer.limit() - 1);
+        boolean short_threw = false;
+        try
+        {
+            readQueue(channel(buffer), Codec.INTEGER, new CircularArrayQueue<Integer>());
+        }
+        catch (EOFException e)
+        {
+            short_threw = true;
+        }
+
+        boolean magic_threw = false;
+        try
+        {
+            readIntStack(channel(ByteBuffer.allocate(HEADER_SIZE)));
+        }
+        catch (IOException e)
+        {
+            magic_threw = true;
+        }
+
+        // a header claiming far more elements than follow it is cut short,
+        // it must not allocate for all of them
+        ByteBuffer claim = ByteBuffer.allocate(HEADER_SIZE);
+        claim.putInt(MAGIC).putShort(VERSION).put(LONG_STACK).putLong(400_000_000L).flip();
+        boolean claim_threw = false;
+        try
+        {
+            readLongStack(channel(claim));
+        }
+        catch (EOFException e)
+        {
+            claim_threw = true;
+        }
+
+        assert kind_threw && short_threw && magic_threw && claim_threw;
+
+        // snapshots written one after the other are read one after the
+        // other, each read stops where its snapshot ends
+        buffer.clear();
+        write(strings, Codec.STRING, channel(buffer));
+        write(queue, Codec.INTEGER, channel(buffer));
+        buffer.flip();
+        ByteChannel both = channel(buffer);
+        Stack<String> first_result = readStack(both, Codec.STRING);
+        CircularDoubleLinkedQueue<Integer> second_result = readQueue(both, Codec.INTEGER,
+                new CircularDoubleLinkedQueue<Integer>());
+
+        assert first_result.size() == strings.size() : first_result.size();
+        assert second_result.toString().equals(queue.toString()) : second_result;
+        assert !buffer.hasRemaining();
+
+        // elements larger than the buffer
+        Codec<byte[]> bytes = new Codec<byte[]>()
+        {
+            public void encode(byte[] value, DataOutput out) throws IOException
+            {
+                out.writeInt(value.length);
+                out.write(value);
+            }
+
+            public byte[] decode(DataInput in) throws IOException
+            {
+                byte[] value = new byte[in.readInt()];
+                in.readFully(value);
+                return value;
+            }
+        };
+
+        Random random = new Random(14);
+        Stack<byte[]> large = new Stack<byte[]>();
+        for (int i = 0; i < 3; i++)
+        {
+            byte[] value = new byte[BUFFER_SIZE * (i + 1) + i];
+            random.nextBytes(value);
+            large.push(value);
+        }
+
+        buffer = ByteBuffer.allocate(8 * BUFFER_SIZE);
+        write(large, bytes, channel(buffer));
+        buffer.flip();
+        Stack<byte[]> large_result = readStack(channel(buffer), bytes);
+        while (!large.isEmpty())
+        {
+            assert Arrays.equals(large.pop(), large_result.pop());
+        }
+
+        // case test
+        // the primitive stacks through a file, with many more values than
+        // fit in the buffer, and the speed of writing and reading a large
+        // LongStack.
+        Path path = Files.createTempFile("snapshot", ".bin");
+        try
+        {
+            IntStack ints = new IntStack();
+            CharStack chars = new CharStack();
+            for (int i = 0; i < 1_000_003; i++)
+            {
+                ints.push(random.nextInt());
+                chars.push((char)random.nextInt());
+            }
+
+            try (FileChannel out = FileChannel.open(path, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING))
+            {
+                write(ints, out);
+                write(chars, out);
+            }
+
+            try (FileChannel in = FileChannel.open(path, StandardOpenOption.READ))
+            {
+                IntStack ints_result = readIntStack(in);
+                assert in.position() == HEADER_SIZE + 4L * ints.size() : in.position();
+                CharStack chars_result = readCharStack(in);
+                assert in.position() == in.size() : in.position();
+
+                assert ints_result.size() == ints.size() : ints_result.size();
+                assert chars_result.size() == chars.size() : chars_result.size();
+                while (!ints.isEmpty())
+                {
+                    assert ints.pop() == ints_result.pop();
+                    assert chars.pop() == chars_result.pop();
+                }
+            }
+
+            // a file is checked against the count of the header before the
+            // array is made
+            claim.rewind();
+            Files.write(path, Arrays.copyOf(claim.array(), HEADER_SIZE + 8));
+            boolean file_claim_threw = false;
+            try (FileChannel in = FileChannel.open(path, StandardOpenOption.READ))
+            {
+                readLongStack(in);
+            }
+            catch (EOFException e)
+            {
+                file_claim_threw = true;
+            }
+
+            assert file_claim_threw;
+
+            int count = 32 * 1024 * 1024;
+            LongStack longs = new LongStack();
+            for (long i = 0; i < count; i++)
+            {
+                longs.push(i * 0x9E3779B97F4A7C15L);
+            }
+
+            long start = System.nanoTime();
+            try (FileChannel out = FileChannel.open(path, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING))
+            {
+                write(longs, out);
+                out.force(false);
+            }
+
+            long written = System.nanoTime() - start;
+            longs = null;
+
+            start = System.nanoTime();
+            LongStack longs_result;
+            try (FileChannel in = FileChannel.open(path, StandardOpenOption.READ))
+            {
+                longs_result = readLongStack(in);
+            }
+
+            long read = System.nanoTime() - start;
+
+            assert longs_result.size() == count : longs_result.size();
+            for (long i = count - 1; i >= count - 1000; i--)
+            {
+                assert longs_result.pop() == i * 0x9E3779B97F4A7C15L;
+            }
+
+            double megabytes = (HEADER_SIZE + 8.0 * count) / (1024 * 1024);
+            System.out.println(String.format("%d longs, %.0f MB, written at %.0f MB/s and read at %.0f MB/s",
+                    count, megabytes, megabytes * 1e9 / written, megabytes * 1e9 / read));
+        }
+        finally
+        {
+            Files.delete(path);
+        }
+    }
+}
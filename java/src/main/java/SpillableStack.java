@@ -0,0 +1,383 @@
+/*
+    Author: Andreas Hammarstrand
+    Written: 2026/10/18
+    Purpose:
+        SpillableStack<T> is a stack with the operations of Stack<T> whose
+        memory use is bounded. At most `maxInMemory` elements are kept on
+        the heap; when a push would go over that budget, the bottom half of
+        the elements in memory is written to a temporary file through a
+        Codec<T> and dropped from the heap. Chunks are written one after
+        the other to the end of the file, and since a stack only ever needs
+        its most recent chunk back, a pop that empties the heap part reads
+        the last chunk back and cuts it off the end of the file. Both
+        directions are therefore sequential I/O, and only pushes and pops
+        that cross a chunk boundary touch the disk.
+    Usage:
+        Create an instance with
+        `new SpillableStack<T>(Codec<T> codec, int maxInMemory)` and use
+        `push`, `pop`, `size`, `isEmpty` and the iterator as with Stack<T>.
+        The iterator goes from the top to the bottom and reads spilled
+        chunks one at a time; the stack may not be changed while it is
+        iterated. `close()` deletes the temporary file, and is also done by
+        try-with-resources. Failing disk I/O is reported as an
+        `UncheckedIOException`. To run tests, run static main function of
+        the class.
+ */
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.Random;
+
+public class SpillableStack<T> implements Iterable<T>, Closeable
+{
+    private final Codec<T> codec;
+
+    // the top of the stack, `values[count - 1]` is the top element
+    private final T[] values;
+    private int count;
+
+    // the amount of elements written to the file per chunk
+    private final int chunkSize;
+
+    // the file holding the spilled chunks, created on the first spill, and
+    // the offset of every chunk in it, the most recent on top
+    private FileChannel file;
+    private final LongStack chunks = new LongStack();
+
+    public SpillableStack(Codec<T> codec, int maxInMemory)
+    {
+        if (codec == null || maxInMemory < 2)
+        {
+            throw new IllegalArgumentException();
+        }
+
+        this.codec = codec;
+        values = (T[])new Object[maxInMemory];
+        chunkSize = maxInMemory / 2;
+    }
+
+    // returns the number of elements in the stack.
+    public int size()
+    {
+        return count + chunks.size() * chunkSize;
+    }
+
+    // returns true if stack is empty, otherwise false.
+    public boolean isEmpty()
+    {
+        return count == 0 && chunks.isEmpty();
+    }
+
+    // returns the amount of elements that are currently on the heap.
+    public int sizeInMemory()
+    {
+        return count;
+    }
+
+    // writes the bottom chunk of the heap part to the end of the file
+    private void spill() throws IOException
+    {
+        if (file == null)
+        {
+            Path path = Files.createTempFile("stack", ".spill");
+            file = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE,
+                    StandardOpenOption.DELETE_ON_CLOSE);
+        }
+
+        long offset = file.size();
+        file.position(offset);
+
+        // the channel is not closed with the stream, it is still in use
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(file)));
+        for (int i = 0; i < chunkSize; i++)
+        {
+            codec.encode(values[i], out);
+        }
+
+        out.flush();
+        chunks.push(offset);
+
+        // the remaining elements move down, and their old slots are cleared
+        System.arraycopy(values, chunkSize, values, 0, count - chunkSize);
+        for (int i = count - chunkSize; i < count; i++)
+        {
+            values[i] = null;
+        }
+
+        count -= chunkSize;
+    }
+
+    // reads the chunk at `offset` of the file into `target`
+    private void read(long offset, T[] target) throws IOException
+    {
+        file.position(offset);
+
+        DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(file)));
+        for (int i = 0; i < chunkSize; i++)
+        {
+            target[i] = codec.decode(in);
+        }
+    }
+
+    // moves the most recently spilled chunk back onto the heap part, which
+    // has to be empty
+    private void reload() throws IOException
+    {
+        long offset = chunks.pop();
+        read(offset, values);
+        count = chunkSize;
+
+        file.truncate(offset);
+    }
+
+    // put the value on the top of the stack.
+    public void push(T value)
+    {
+        if (count == values.length)
+        {
+            try
+            {
+                spill();
+            }
+            catch (IOException e)
+            {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        values[count++] = value;
+    }
+
+    // removes and returns the element on the top of the stack.
+    public T pop()
+    {
+        if (count == 0)
+        {
+            if (chunks.isEmpty())
+            {
+                throw new IndexOutOfBoundsException();
+            }
+
+            try
+            {
+                reload();
+            }
+            catch (IOException e)
+            {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        T value = values[--count];
+        values[count] = null;
+        return value;
+    }
+
+    // deletes the file of spilled chunks, the stack is empty afterwards.
+    @Override
+    public void close() throws IOException
+    {
+        while (!chunks.isEmpty())
+        {
+            chunks.pop();
+        }
+
+        for (int i = 0; i < count; i++)
+        {
+            values[i] = null;
+        }
+
+        count = 0;
+
+        if (file != null)
+        {
+            file.close();
+            file = null;
+        }
+    }
+
+    // returns an iterator that spans over the stack, from top to bottom.
+    public Iterator<T> iterator()
+    {
+        return new SpillableStackIterator();
+    }
+
+    private class SpillableStackIterator implements Iterator<T>
+    {
+        // the elements being iterated, first the heap part and then one
+        // spilled chunk at a time
+        T[] current = values;
+        int index = count;
+
+        // the amount of spilled chunks not read yet
+        int chunksLeft = chunks.size();
+        PrimitiveIterator.OfLong offsets = chunks.iterator();
+
+        // returns a bool specifying if the iterator has following element.
+        public boolean hasNext()
+        {
+            return index > 0 || chunksLeft > 0;
+        }
+
+        // moves the iterator to the next value and returns it.
+        public T next()
+        {
+            if (index == 0)
+            {
+                if (chunksLeft == 0)
+                {
+                    throw new NoSuchElementException();
+                }
+
+                // the chunks are read from the most recent one down
+                if (current == values)
+                {
+                    current = (T[])new Object[chunkSize];
+                }
+
+                try
+                {
+                    read(offsets.nextLong(), current);
+                }
+                catch (IOException e)
+                {
+                    throw new UncheckedIOException(e);
+                }
+
+                chunksLeft--;
+                index = chunkSize;
+            }
+
+            return current[--index];
+        }
+
+        // warnings are given when `remove` is not overridden, throwing UnsupportedOperation exception instead.
+        public void remove()
+        {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    // test method
+    public static void main(String[] args) throws IOException
+    {
+        try (SpillableStack<String> s = new SpillableStack<String>(Codec.STRING, 4))
+        {
+            // more elements than fit in memory
+            for (int i = 0; i < 10; i++)
+            {
+                s.push("v" + i);
+            }
+
+            int size_result = s.size();
+            int memory_result = s.sizeInMemory();
+
+            assert size_result == 10 : size_result;
+            assert memory_result <= 4 : memory_result;
+
+            // the iterator reads the spilled chunks, from top to bottom
+            StringBuilder iterated = new StringBuilder();
+            for (String value : s)
+            {
+                iterated.append(value);
+            }
+
+            assert iterated.toString().equals("v9v8v7v6v5v4v3v2v1v0") : iterated;
+
+            // pops come back in reverse order across the chunks
+            for (int i = 9; i >= 0; i--)
+            {
+                String pop_result = s.pop();
+                assert pop_result.equals("v" + i) : pop_result;
+            }
+
+            assert s.isEmpty();
+
+            boolean threw = false;
+            try
+            {
+                s.pop();
+            }
+            catch (IndexOutOfBoundsException e)
+            {
+                threw = true;
+            }
+
+            assert threw;
+
+            // strings longer than `writeUTF` allows are spilled whole
+            StringBuilder sb = new StringBuilder();
+            for (int i = 0; i < 100_000; i++)
+            {
+                sb.append((char)('a' + i % 26));
+            }
+
+            String long_value = sb.toString();
+            for (int i = 0; i < 6; i++)
+            {
+                s.push(long_value + i);
+            }
+
+            for (int i = 5; i >= 0; i--)
+            {
+                String long_result = s.pop();
+                assert long_result.equals(long_value + i) : long_result.length();
+            }
+        }
+
+        // case test
+        // reversing a sequence far larger than the budget, with pushes and
+        // pops mixed in, must match Stack<T>.
+        Stack<Long> reference = new Stack<Long>();
+        try (SpillableStack<Long> spillable = new SpillableStack<Long>(Codec.LONG, 1000))
+        {
+            Random random = new Random(12);
+            for (long n = 0; n < 2_000_000; n++)
+            {
+                if (reference.isEmpty() || random.nextInt(3) != 0)
+                {
+                    reference.push(n);
+                    spillable.push(n);
+                }
+                else
+                {
+                    long reference_result = reference.pop();
+                    long spillable_result = spillable.pop();
+                    assert reference_result == spillable_result : reference_result + " " + spillable_result;
+                }
+
+                assert spillable.sizeInMemory() <= 1000;
+            }
+
+            int size_result = spillable.size();
+            assert size_result == reference.size() : size_result;
+
+            long start = System.nanoTime();
+            while (!reference.isEmpty())
+            {
+                long reference_result = reference.pop();
+                long spillable_result = spillable.pop();
+                assert reference_result == spillable_result : reference_result + " " + spillable_result;
+            }
+
+            long elapsed = System.nanoTime() - start;
+
+            assert spillable.isEmpty();
+            System.out.println(size_result + " elements popped through a 1000 element budget in " +
+                    elapsed / 1_000_000 + " ms");
+        }
+    }
+}
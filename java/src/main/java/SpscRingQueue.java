@@ -0,0 +1,299 @@
+/*
+    Author: Andreas Hammarstrand
+    Written: 2026/10/18
+    Purpose:
+        SpscRingQueue<T> is a bounded queue for exactly one producer thread
+        and one consumer thread. Neither side locks or CASes: the producer
+        owns `tail`, the consumer owns `head`, and each publishes its index
+        with an ordered store that the other side reads. Each side also
+        keeps a cached copy of the opposite index and only rereads the
+        shared one when the cached copy says the queue is full (or empty),
+        which keeps the two cores from pulling each others cache line back
+        and forth on every operation. The indices are padded onto cache
+        lines of their own to avoid false sharing.
+    Usage:
+        Create an instance with `new SpscRingQueue<T>(int capacity)`, the
+        capacity is rounded up to a power of two. The producer calls
+        `boolean offer(T item)`, which returns false when the queue is full.
+        The consumer calls `T poll()`, which returns null when the queue is
+        empty, or `int drain(Consumer<? super T> consumer, int max)` to
+        take a batch at once. Using either side from more than one thread
+        at a time is not supported. To run tests, run static main function
+        of the class.
+ */
+
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.function.Consumer;
+
+// the padding classes below are ordered by inheritance, since the JVM lays
+// out superclass fields before subclass fields. this keeps `tail` and
+// `head` at least 64 bytes away from each other and from the object header
+// and array reference, whatever order the JVM picks for fields within a
+// single class.
+abstract class SpscRingQueuePad0
+{
+    long p00, p01, p02, p03, p04, p05, p06, p07;
+}
+
+abstract class SpscRingQueueProducerFields extends SpscRingQueuePad0
+{
+    // index of the next slot to write, only written by the producer
+    volatile long tail;
+
+    // the producers last read of `head`
+    long headCache;
+}
+
+abstract class SpscRingQueuePad1 extends SpscRingQueueProducerFields
+{
+    long p10, p11, p12, p13, p14, p15, p16, p17;
+}
+
+abstract class SpscRingQueueConsumerFields extends SpscRingQueuePad1
+{
+    // index of the next slot to read, only written by the consumer
+    volatile long head;
+
+    // the consumers last read of `tail`
+    long tailCache;
+}
+
+abstract class SpscRingQueuePad2 extends SpscRingQueueConsumerFields
+{
+    long p20, p21, p22, p23, p24, p25, p26, p27;
+}
+
+public class SpscRingQueue<T> extends SpscRingQueuePad2
+{
+    private static final AtomicLongFieldUpdater<SpscRingQueueProducerFields> TAIL =
+            AtomicLongFieldUpdater.newUpdater(SpscRingQueueProducerFields.class, "tail");
+    private static final AtomicLongFieldUpdater<SpscRingQueueConsumerFields> HEAD =
+            AtomicLongFieldUpdater.newUpdater(SpscRingQueueConsumerFields.class, "head");
+
+    private final T[] values;
+    private final int mask;
+
+    public SpscRingQueue(int capacity)
+    {
+        if (capacity < 1 || capacity > 1 << 30)
+        {
+            throw new IllegalArgumentException();
+        }
+
+        // round up to a power of two so an index can be wrapped with a mask
+        int length = Integer.highestOneBit(capacity);
+        if (length < capacity)
+        {
+            length <<= 1;
+        }
+
+        values = (T[])new Object[length];
+        mask = length - 1;
+    }
+
+    // returns the maximum amount of elements the queue can hold.
+    public int capacity()
+    {
+        return values.length;
+    }
+
+    // puts the item at the end of the queue, returns false if the queue is
+    // full. only call from the producer thread.
+    public boolean offer(T item)
+    {
+        if (item == null)
+        {
+            throw new IllegalArgumentException();
+        }
+
+        long t = tail;
+
+        // only look at the consumers `head` when the cached copy says full
+        if (t - headCache >= values.length)
+        {
+            headCache = head;
+            if (t - headCache >= values.length)
+            {
+                return false;
+            }
+        }
+
+        values[(int)t & mask] = item;
+
+        // the ordered store publishes the slot write above to the consumer
+        TAIL.lazySet(this, t + 1);
+        return true;
+    }
+
+    // returns and removes the value from the front of the queue, or null
+    // when the queue is empty. only call from the consumer thread.
+    public T poll()
+    {
+        long h = head;
+
+        // only look at the producers `tail` when the cached copy says empty
+        if (h >= tailCache)
+        {
+            tailCache = tail;
+            if (h >= tailCache)
+            {
+                return null;
+            }
+        }
+
+        int slot = (int)h & mask;
+        T value = values[slot];
+        values[slot] = null;
+
+        // the ordered store hands the cleared slot back to the producer
+        HEAD.lazySet(this, h + 1);
+        return value;
+    }
+
+    // passes up to `max` values from the front of the queue to `consumer`
+    // and returns how many were passed. `head` is published once for the
+    // whole batch. only call from the consumer thread.
+    public int drain(Consumer<? super T> consumer, int max)
+    {
+        long h = head;
+        long available = tailCache - h;
+
+        if (available < max)
+        {
+            tailCache = tail;
+            available = tailCache - h;
+        }
+
+        int count = (int)Math.min(available, max);
+        for (int i = 0; i < count; i++)
+        {
+            int slot = (int)(h + i) & mask;
+            T value = values[slot];
+            values[slot] = null;
+            consumer.accept(value);
+        }
+
+        if (count > 0)
+        {
+            HEAD.lazySet(this, h + count);
+        }
+
+        return count;
+    }
+
+    // returns amount of elements in the queue.
+    // the value is approximate when the other thread is active.
+    public int size()
+    {
+        // read `head` first, so that `tail` is at least as new
+        long h = head;
+        long t = tail;
+        return (int)Math.max(0, Math.min(values.length, t - h));
+    }
+
+    // returns true if the queue is empty, otherwise false.
+    public boolean isEmpty()
+    {
+        return head == tail;
+    }
+
+    // test method
+    public static void main(String[] args) throws InterruptedException
+    {
+        SpscRingQueue<Character> q = new SpscRingQueue<Character>(3);
+
+        // the capacity is rounded up to the next power of two
+        int capacity_result = q.capacity();
+        assert capacity_result == 4 : capacity_result;
+
+        assert q.isEmpty();
+        assert q.poll() == null;
+
+        // a full queue rejects offers instead of growing
+        for (char c : "abcd".toCharArray())
+        {
+            boolean offer_result = q.offer(c);
+            assert offer_result : c;
+        }
+
+        boolean full_offer_result = q.offer('e');
+        int full_size_result = q.size();
+
+        assert !full_offer_result;
+        assert full_size_result == 4 : full_size_result;
+
+        char poll_result = q.poll();
+        assert poll_result == 'a' : poll_result;
+
+        // drain respects `max` and keeps the order
+        StringBuilder drained = new StringBuilder();
+        int drain_result = q.drain(drained::append, 2);
+
+        assert drain_result == 2 : drain_result;
+        assert drained.toString().equals("bc") : drained;
+        assert q.size() == 1 : q.size();
+
+        q.drain(drained::append, 10);
+        assert drained.toString().equals("bcd") : drained;
+        assert q.isEmpty();
+
+        // case test
+        // hand values from one thread to another through a small queue, so
+        // that both the full and the empty paths are taken often.
+        final int count = 20_000_000;
+        final Integer[] boxed = new Integer[1024];
+        for (int i = 0; i < boxed.length; i++)
+        {
+            boxed[i] = i;
+        }
+
+        final SpscRingQueue<Integer> handoff = new SpscRingQueue<Integer>(1024);
+        final long[] checksum = new long[1];
+
+        Thread producer = new Thread(() -> {
+            for (int i = 0; i < count; i++)
+            {
+                Integer value = boxed[i & (boxed.length - 1)];
+                while (!handoff.offer(value))
+                {
+                    Thread.yield();
+                }
+            }
+        });
+
+        Thread consumer = new Thread(() -> {
+            int[] expected = { 0 };
+            int received = 0;
+
+            while (received < count)
+            {
+                int n = handoff.drain(value -> {
+                    assert value == (expected[0] & (boxed.length - 1)) : value;
+                    expected[0]++;
+                }, 256);
+
+                if (n == 0)
+                {
+                    Thread.yield();
+                }
+
+                received += n;
+            }
+
+            checksum[0] = received;
+        });
+
+        long start = System.nanoTime();
+        producer.start();
+        consumer.start();
+        producer.join();
+        consumer.join();
+        long elapsed = System.nanoTime() - start;
+
+        assert checksum[0] == count : checksum[0];
+        assert handoff.isEmpty();
+
+        System.out.println(count + " values handed off in " + elapsed / 1_000_000 + " ms, " +
+                String.format("%.1f", (double)elapsed / count) + " ns per value");
+    }
+}
@@ -1,7 +1,7 @@
 /*
     Author: Andreas Hammarstrand
     Written: 2020/08/26
-    Updated: 2020/09/06
+    Updated: 2026/10/18
     Purpose:
         Stack<T> is an array-based implementation of a stack.
     Usage:
@@ -54,6 +54,22 @@ public class Stack<T> implements Iterable<T>
         values = newValues;
     }
 
+    // returns the array backing the stack, the elements are at
+    // `[0..size())` from the bottom up. used for bulk copies by Snapshots.
+    T[] array()
+    {
+        return values;
+    }
+
+    // makes `values` the array of the stack, holding `size` elements from
+    // the bottom up. `values` needs room for at least one more element, the
+    // stack grows as usual on the next push.
+    void install(T[] values, int size)
+    {
+        this.values = values;
+        index = size;
+    }
+
     // removes and returns the element on the top of the stack.
     public T pop() 
     {
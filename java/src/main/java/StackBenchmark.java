@@ -0,0 +1,138 @@
+/*
+    Author: Andreas Hammarstrand
+    Written: 2026/10/18
+    Purpose:
+        StackBenchmark measures how the shared stacks hold up when many
+        threads push and pop at the same time. Each thread runs a loop of a
+        push followed by a pop, which is the access pattern of a shared free
+        list, and the total throughput is printed per thread count for a
+        synchronized `Stack<T>`, `ConcurrentStack<T>` and
+        `EliminationBackoffStack<T>`.
+    Usage:
+        Run the static main function, optionally with the amount of
+        operations per thread as the first argument. Thread counts go from
+        1 up to twice the amount of available processors.
+ */
+
+import java.util.concurrent.CountDownLatch;
+
+public class StackBenchmark
+{
+    // the operations of a stack that the benchmark uses
+    private interface SharedStack
+    {
+        void push(Integer item);
+
+        Integer pop();
+    }
+
+    // a `Stack<T>` shared the way it is done without a concurrent stack
+    private static class SynchronizedStack implements SharedStack
+    {
+        private final Stack<Integer> stack = new Stack<Integer>();
+
+        public synchronized void push(Integer item)
+        {
+            stack.push(item);
+        }
+
+        public synchronized Integer pop()
+        {
+            return stack.isEmpty() ? null : stack.pop();
+        }
+    }
+
+    // runs `operations` push/pop pairs on each of `threads` threads and
+    // returns the amount of pairs per second over all threads.
+    private static double run(final SharedStack stack, int threads, final int operations)
+            throws InterruptedException
+    {
+        final CountDownLatch start = new CountDownLatch(1);
+        final Integer value = 42;
+
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++)
+        {
+            workers[t] = new Thread(() -> {
+                try
+                {
+                    start.await();
+                }
+                catch (InterruptedException e)
+                {
+                    return;
+                }
+
+                for (int i = 0; i < operations; i++)
+                {
+                    stack.push(value);
+                    stack.pop();
+                }
+            });
+
+            workers[t].start();
+        }
+
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Thread worker : workers)
+        {
+            worker.join();
+        }
+
+        long elapsed = System.nanoTime() - begin;
+        return (double)threads * operations / elapsed * 1e9;
+    }
+
+    public static void main(String[] args) throws InterruptedException
+    {
+        int operations = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int maxThreads = Runtime.getRuntime().availableProcessors() * 2;
+
+        final ConcurrentStack<Integer> lockFree = new ConcurrentStack<Integer>();
+        SharedStack treiber = new SharedStack()
+        {
+            public void push(Integer item)
+            {
+                lockFree.push(item);
+            }
+
+            public Integer pop()
+            {
+                return lockFree.poll();
+            }
+        };
+
+        final EliminationBackoffStack<Integer> backoff = new EliminationBackoffStack<Integer>();
+        SharedStack elimination = new SharedStack()
+        {
+            public void push(Integer item)
+            {
+                backoff.push(item);
+            }
+
+            public Integer pop()
+            {
+                return backoff.poll();
+            }
+        };
+
+        SharedStack synchronizedStack = new SynchronizedStack();
+
+        // one untimed round each so the JIT has compiled the hot paths
+        run(treiber, 2, operations / 10);
+        run(elimination, 2, operations / 10);
+        run(synchronizedStack, 2, operations / 10);
+
+        System.out.println("threads   synchronized Stack   ConcurrentStack   EliminationBackoffStack" +
+                "   (push/pop pairs per second)");
+        for (int threads = 1; threads <= maxThreads; threads *= 2)
+        {
+            double locked = run(synchronizedStack, threads, operations);
+            double cas = run(treiber, threads, operations);
+            double eliminated = run(elimination, threads, operations);
+
+            System.out.println(String.format("%7d   %18.0f   %15.0f   %23.0f", threads, locked, cas, eliminated));
+        }
+    }
+}